@@ -0,0 +1,80 @@
+package duchess;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import duchess.storage.FileStorage;
+
+/**
+ * Times Duchess.getResponse end to end, from the raw input to the reply, for the
+ * common commands on generated ledgers of each size. Mutations are journaled as usual,
+ * into the benchmark data directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = SyntheticLedger.DATA_DIR_ARG)
+public class DuchessBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int taskCount;
+
+    private Duchess duchess;
+    private String deleteLast;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticLedger.deleteDataDirectory();
+        FileStorage storage = new FileStorage(FileStorage.DEFAULT_DIRECTORY);
+        storage.writeTasks(SyntheticLedger.generateTodoList(taskCount));
+        duchess = new Duchess(storage);
+        deleteLast = "delete " + (taskCount + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        duchess.close();
+        SyntheticLedger.deleteDataDirectory();
+    }
+
+    @Benchmark
+    public String list() {
+        return duchess.getResponse("list");
+    }
+
+    @Benchmark
+    public String findRare() {
+        return duchess.getResponse("find " + SyntheticLedger.RARE_KEYWORD);
+    }
+
+    @Benchmark
+    public String mark() {
+        return duchess.getResponse("mark 1");
+    }
+
+    @Benchmark
+    public String sort() {
+        return duchess.getResponse("sort");
+    }
+
+    @Benchmark
+    public String addThenDelete() {
+        duchess.getResponse("deadline pay the royal tax /by 2026-04-15");
+        return duchess.getResponse(deleteLast);
+    }
+}
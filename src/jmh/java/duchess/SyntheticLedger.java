@@ -0,0 +1,126 @@
+package duchess;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import duchess.list.TodoList;
+import duchess.task.DeadlineTask;
+import duchess.task.EventTask;
+import duchess.task.Task;
+import duchess.task.TodoTask;
+
+/**
+ * Generates ledgers of made-up tasks for benchmarks.
+ *
+ * Half the tasks are todos, three in ten are deadlines and two in ten are events, spread
+ * over 2026, and roughly a third of them are done. The same size always yields the same
+ * ledger, so results can be compared between runs and releases. Every thousandth task
+ * mentions a rocket, which gives benchmarks a rare keyword to look for.
+ */
+public final class SyntheticLedger {
+    /**
+     * The data directory used by benchmarks that go through FileStorage, so that they never
+     * touch the real ledger. Pass {@link #DATA_DIR_ARG} to their forks.
+     */
+    public static final String DATA_DIRECTORY = "build/jmh-ledger";
+    public static final String DATA_DIR_ARG = "-Dduchess.dataDir=" + DATA_DIRECTORY;
+
+    /** A keyword found in every task that does not mention a rocket. */
+    public static final String COMMON_KEYWORD = "report";
+    /** A keyword found in one task in a thousand. */
+    public static final String RARE_KEYWORD = "rocket";
+
+    private static final String[] VERBS = {"submit", "review", "draft", "file", "read", "prepare"};
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 1);
+    private static final long SEED = 42L;
+
+    private SyntheticLedger() {
+    }
+
+    /**
+     * Returns the given number of generated tasks.
+     *
+     * @param count the number of tasks to generate
+     * @return the generated tasks
+     */
+    public static List<Task> generateTasks(int count) {
+        Random random = new Random(SEED);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String description = VERBS[random.nextInt(VERBS.length)] + " "
+                    + (i % 1000 == 0 ? RARE_KEYWORD : COMMON_KEYWORD) + " " + i;
+            LocalDate day = FIRST_DAY.plusDays(random.nextInt(365));
+
+            int kind = random.nextInt(10);
+            Task task;
+            if (kind < 5) {
+                task = new TodoTask(description);
+            } else if (kind < 8) {
+                task = new DeadlineTask(description, day);
+            } else {
+                LocalDateTime start = day.atTime(8 + random.nextInt(10), 0);
+                task = new EventTask(description, start, start.plusHours(1 + random.nextInt(3)));
+            }
+
+            if (random.nextInt(3) == 0) {
+                task = task.withDone(true);
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns a TodoList holding the given number of generated tasks.
+     *
+     * @param count the number of tasks to generate
+     * @return the populated TodoList
+     */
+    public static TodoList generateTodoList(int count) {
+        TodoList todoList = new TodoList();
+        for (Task task : generateTasks(count)) {
+            todoList.addTask(task);
+        }
+        return todoList;
+    }
+
+    /**
+     * Returns the given number of generated tasks in the text file format.
+     *
+     * @param count the number of tasks to generate
+     * @return one line per task
+     */
+    public static List<String> generateLines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (Task task : generateTasks(count)) {
+            lines.add(task.toFileFormat());
+        }
+        return lines;
+    }
+
+    /**
+     * Deletes the benchmark data directory and everything in it.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    public static void deleteDataDirectory() throws IOException {
+        Path directory = Paths.get(DATA_DIRECTORY);
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package duchess.list;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import duchess.SyntheticLedger;
+import duchess.task.Task;
+
+/**
+ * Times a delete-heavy workload on generated ledgers: deleting a task from a spread of
+ * positions and putting it back, so the ledger keeps its size, and reading a task by number
+ * in between. Each delete also publishes a snapshot, as a delete command does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DeleteBenchmark {
+    /** Steps through positions in an order that spreads them over the whole list. */
+    private static final int STRIDE = 7919;
+
+    @Param({"100000", "1000000"})
+    private int taskCount;
+
+    private TodoList todoList;
+    private int position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        todoList = SyntheticLedger.generateTodoList(taskCount);
+    }
+
+    private int nextPosition() {
+        position = (position + STRIDE) % taskCount;
+        return position;
+    }
+
+    /**
+     * Deletes a task from anywhere in the list and inserts it back where it was.
+     */
+    @Benchmark
+    public TodoList deleteAndInsert() {
+        int index = nextPosition();
+        todoList.insertTask(index, todoList.deleteTask(index));
+        return todoList;
+    }
+
+    /**
+     * Deletes a task from the front, where every later task moves, and adds it at the end.
+     */
+    @Benchmark
+    public TodoList deleteFirstAndAdd() {
+        todoList.addTask(todoList.deleteTask(0));
+        return todoList;
+    }
+
+    @Benchmark
+    public Task getTask() {
+        return todoList.getTask(nextPosition());
+    }
+}
@@ -0,0 +1,67 @@
+package duchess.list;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import duchess.task.Task;
+import duchess.task.TodoTask;
+
+/**
+ * Compares find through the keyword index against the original scan over every task's
+ * display string. The misspelt keyword only finds its tasks through the index, which
+ * corrects it first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FindBenchmark {
+    @Param({"100000"})
+    private int taskCount;
+
+    @Param({"rocket", "report 4242", "rockte"})
+    private String keyword;
+
+    private TodoList todoList;
+
+    @Setup
+    public void setUp() {
+        todoList = new TodoList();
+        for (int i = 0; i < taskCount; i++) {
+            String description = i % 1000 == 0 ? "launch rocket " + i : "submit report " + i;
+            todoList.addTask(new TodoTask(description));
+        }
+    }
+
+    @Benchmark
+    public TodoList indexedFind() {
+        return todoList.findTasks(keyword);
+    }
+
+    @Benchmark
+    public List<Task> scanFind() {
+        List<Task> matched = new ArrayList<>();
+        for (int i = 0; i < todoList.size(); i++) {
+            Task task = todoList.getTask(i);
+            if (task.toString().contains(keyword)) {
+                matched.add(task);
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,76 @@
+package duchess.list;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import duchess.task.DeadlineTask;
+import duchess.task.Task;
+import duchess.task.TodoTask;
+
+/**
+ * Times inserting a task before others followed by a query through the indexes, the
+ * workload that used to rebuild both indexes on every query. Each insert is undone by a
+ * delete from the end, so the list keeps its size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InsertFindBenchmark {
+    /** Steps through positions in an order that spreads them over the whole list. */
+    private static final int STRIDE = 7919;
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    @Param({"100000"})
+    private int taskCount;
+
+    private TodoList todoList;
+    private int position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        todoList = new TodoList();
+        for (int i = 0; i < taskCount; i++) {
+            todoList.addTask(newTask(i));
+        }
+    }
+
+    private static Task newTask(int i) {
+        return i % 2 == 0
+                ? new TodoTask(i % 1000 == 0 ? "launch rocket " + i : "submit report " + i)
+                : new DeadlineTask("return book " + i, START.plusDays(i % 365));
+    }
+
+    private void insertBeforeOthers() {
+        position = (position + STRIDE) % taskCount;
+        todoList.insertTask(position, newTask(position));
+        todoList.deleteTask(todoList.size() - 1);
+    }
+
+    @Benchmark
+    public TodoList insertThenFind() {
+        insertBeforeOthers();
+        return todoList.findTasks("rocket");
+    }
+
+    @Benchmark
+    public TodoList insertThenFindDue() {
+        insertBeforeOthers();
+        return todoList.findDeadlinesDueBy(START.plusDays(7));
+    }
+}
@@ -0,0 +1,146 @@
+package duchess.list;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import duchess.SyntheticLedger;
+import duchess.task.Task;
+
+/**
+ * Compares a todolist of task objects with a columnar one and an off-heap one on the same
+ * generated ledger: the heap and direct memory each keeps alive, how long a full collection
+ * takes with it resident, what reading every task costs when tasks are built on demand, and
+ * what deleting a task costs when it is moved out rather than crossed out.
+ *
+ * The heap is fixed so that collections are comparable between layouts. The gc profiler
+ * configured in build.gradle adds allocation and collection counts to every result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TaskLayoutBenchmark {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    @Param({"100000", "1000000"})
+    private int taskCount;
+
+    @Param({"objects", "columns", "offheap"})
+    private String layout;
+
+    private TodoList todoList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        todoList = createTodoList(SyntheticLedger.generateTasks(taskCount));
+    }
+
+    private TodoList createTodoList(List<Task> tasks) {
+        TodoList list;
+        switch (layout) {
+        case "columns":
+            list = TodoList.columnar();
+            break;
+        case "offheap":
+            list = TodoList.offHeap();
+            break;
+        default:
+            list = new TodoList();
+            break;
+        }
+        for (Task task : tasks) {
+            list.addTask(task);
+        }
+        return list;
+    }
+
+    /**
+     * Loads a fresh ledger and reports the heap it keeps alive, measured after a full
+     * collection on either side, in the retainedBytes column, and the direct buffer memory
+     * it holds in the directBytes column.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public TodoList retainedHeap(Footprint footprint) {
+        long before = usedHeapAfterGc();
+        long directBefore = usedDirectMemory();
+        TodoList loaded = createTodoList(SyntheticLedger.generateTasks(taskCount));
+        footprint.retainedBytes = usedHeapAfterGc() - before;
+        footprint.directBytes = usedDirectMemory() - directBefore;
+        return loaded;
+    }
+
+    /**
+     * Times a full collection with the ledger resident, which has to trace every object
+     * the ledger holds.
+     */
+    @Benchmark
+    public void fullGc() {
+        System.gc();
+    }
+
+    @Benchmark
+    public TodoList findRare() {
+        return todoList.findTasks(SyntheticLedger.RARE_KEYWORD);
+    }
+
+    @Benchmark
+    public int countDone() {
+        return todoList.findDoneTasks().cardinality();
+    }
+
+    /**
+     * Deletes the first task and adds it back at the end, so the ledger keeps its size.
+     */
+    @Benchmark
+    public TodoList deleteAndAdd() {
+        todoList.addTask(todoList.deleteTask(0));
+        return todoList;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirectMemory() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                used += pool.getMemoryUsed();
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Carries the heap measured by {@link #retainedHeap} into the results.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        public long retainedBytes;
+        public long directBytes;
+    }
+}
@@ -0,0 +1,84 @@
+package duchess.list;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import duchess.SyntheticLedger;
+import duchess.task.Task;
+
+/**
+ * Times the list operations behind find, sort and list on generated ledgers of each size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TodoListBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int taskCount;
+
+    private TodoList todoList;
+    private int markedIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        todoList = SyntheticLedger.generateTodoList(taskCount);
+    }
+
+    @Benchmark
+    public TodoList findCommon() {
+        return todoList.findTasks(SyntheticLedger.COMMON_KEYWORD);
+    }
+
+    @Benchmark
+    public TodoList findRare() {
+        return todoList.findTasks(SyntheticLedger.RARE_KEYWORD);
+    }
+
+    @Benchmark
+    public TodoList sortByTime() {
+        todoList.sortByTime();
+        return todoList;
+    }
+
+    @Benchmark
+    public String renderFromScratch(ColdListing coldListing) {
+        return todoList.toString();
+    }
+
+    @Benchmark
+    public String renderAfterMark() {
+        markedIndex = (markedIndex + 1) % taskCount;
+        todoList.markTask(markedIndex);
+        return todoList.toString();
+    }
+
+    /**
+     * Publishes a new snapshot before every call, so that the render starts from nothing.
+     */
+    @State(Scope.Benchmark)
+    public static class ColdListing {
+        /**
+         * Moves the first task to the end, which renumbers every line.
+         */
+        @Setup(Level.Invocation)
+        public void dropRenderedListing(TodoListBenchmark benchmark) {
+            Task first = benchmark.todoList.deleteTask(0);
+            benchmark.todoList.addTask(first);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package duchess.parser;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the single-pass parser against the regex normalising and repeated splits it
+ * replaced. Run with the gc profiler, which the jmh task enables, to see the bytes
+ * allocated per command in gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParserBenchmark {
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+
+    @Param({"event  project meeting /from 2026-02-16 1400 /to 2026-02-16 1500", "mark 3"})
+    private String input;
+
+    private final ParsedCommand parsedCommand = new ParsedCommand();
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) {
+        Parser.parse(input, parsedCommand);
+        blackhole.consume(parsedCommand.isCommand("event"));
+        if (parsedCommand.hasFlag(Parser.FLAG_FROM)) {
+            blackhole.consume(parsedCommand.getDescription(Parser.FLAG_FROM, Parser.FLAG_TO));
+            String from = parsedCommand.getFlag(Parser.FLAG_FROM, Parser.FLAG_TO);
+            String to = parsedCommand.getFlag(Parser.FLAG_TO, Parser.FLAG_FROM);
+            blackhole.consume(LocalDateTime.parse(from, DATE_TIME_FORMAT));
+            blackhole.consume(LocalDateTime.parse(to, DATE_TIME_FORMAT));
+        } else {
+            blackhole.consume(parsedCommand.getRest());
+        }
+    }
+
+    /**
+     * Parses the input the way Duchess did before the single-pass parser.
+     */
+    @Benchmark
+    public void regexAndSplit(Blackhole blackhole) {
+        String normalized = input.trim().replaceAll("\\s+", " ");
+        String command = normalized.trim().split(" ", 2)[0];
+        String[] parts = normalized.trim().split(" ", 2);
+        String rest = parts.length > 1 ? parts[1] : "";
+        blackhole.consume(command.equals("event"));
+        if (rest.contains("/from")) {
+            String[] first = rest.split("/from", 2);
+            String[] second = first[1].split("/to", 2);
+            blackhole.consume(first[0].trim());
+            blackhole.consume(LocalDateTime.parse(second[0].trim(), DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm")));
+            blackhole.consume(LocalDateTime.parse(second[1].trim(), DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm")));
+        } else {
+            blackhole.consume(rest);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package duchess.storage;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import duchess.SyntheticLedger;
+import duchess.list.TodoList;
+
+/**
+ * Times saving and loading a whole generated ledger through FileStorage.
+ * Each fork keeps its ledger in the benchmark data directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = SyntheticLedger.DATA_DIR_ARG)
+public class FileStorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int taskCount;
+
+    private FileStorage storage;
+    private TodoList todoList;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticLedger.deleteDataDirectory();
+        storage = new FileStorage(FileStorage.DEFAULT_DIRECTORY);
+        todoList = SyntheticLedger.generateTodoList(taskCount);
+        storage.writeTasks(todoList);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        storage.close();
+        SyntheticLedger.deleteDataDirectory();
+    }
+
+    @Benchmark
+    public TodoList fetchTasks() {
+        return storage.fetchTasks();
+    }
+
+    @Benchmark
+    public TodoList writeTasks() throws IOException {
+        storage.writeTasks(todoList);
+        return todoList;
+    }
+}
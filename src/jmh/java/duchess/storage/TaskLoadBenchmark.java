@@ -0,0 +1,119 @@
+package duchess.storage;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import duchess.task.DeadlineTask;
+import duchess.task.EventTask;
+import duchess.task.Task;
+import duchess.task.TodoTask;
+
+/**
+ * Compares loading the ledger from the binary snapshot and with the memory-mapped text
+ * reader against the original Scanner and regex split loop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TaskLoadBenchmark {
+    @Param({"100000"})
+    private int taskCount;
+
+    private Path dataFile;
+    private Path snapshotFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataFile = Files.createTempFile("duchess-bench", ".txt");
+        List<String> lines = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            switch (i % 3) {
+            case 0:
+                lines.add("T | " + (i % 2) + " | read chapter " + i);
+                break;
+            case 1:
+                lines.add("D | " + (i % 2) + " | submit report " + i + " | 2026-02-" + (10 + i % 18));
+                break;
+            default:
+                lines.add("E | " + (i % 2) + " | meeting " + i + " | 2026-03-01 1400 | 2026-03-01 1600");
+            }
+        }
+        Files.write(dataFile, lines, StandardCharsets.UTF_8);
+
+        snapshotFile = Files.createTempFile("duchess-bench", ".bin");
+        List<Task> tasks = MappedTaskReader.read(dataFile);
+        BitSet done = new BitSet();
+        for (int i = 0; i < tasks.size(); i++) {
+            done.set(i, tasks.get(i).isDone());
+        }
+        BinarySnapshot.write(snapshotFile, tasks, done);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dataFile);
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Benchmark
+    public List<Task> binarySnapshot() throws IOException {
+        return BinarySnapshot.read(snapshotFile);
+    }
+
+    @Benchmark
+    public List<Task> mappedReader() throws IOException {
+        return MappedTaskReader.read(dataFile);
+    }
+
+    @Benchmark
+    public List<Task> scannerReader() throws FileNotFoundException {
+        List<Task> tasks = new ArrayList<>();
+        try (Scanner scanner = new Scanner(new File(dataFile.toString()))) {
+            while (scanner.hasNextLine()) {
+                String[] parts = scanner.nextLine().split(" \\| ");
+                Task task;
+                switch (parts[0]) {
+                case "T":
+                    task = new TodoTask(parts[2]);
+                    break;
+                case "D":
+                    task = new DeadlineTask(parts[2], parts[3]);
+                    break;
+                default:
+                    task = new EventTask(parts[2], parts[3], parts[4]);
+                }
+                if (parts[1].equals("1")) {
+                    task = task.withDone(true);
+                }
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+}
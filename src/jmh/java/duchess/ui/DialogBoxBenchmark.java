@@ -0,0 +1,108 @@
+package duchess.ui;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import duchess.command.Response;
+
+/**
+ * Compares building a dialog box from code, or refilling one already built, against
+ * parsing the old DialogBox.fxml for every message.
+ *
+ * The cold benchmarks time the first dialog box built in a fresh JVM, which is what the
+ * greeting costs at startup. The rest time each message once the JVM is warm.
+ * JavaFX is started before measuring, so this needs a display.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DialogBoxBenchmark {
+    private static final String TEXT = "Another task for the royal ledger, peasant:\n[T][ ] write report";
+
+    private Image image;
+    private DialogBox recycled;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        image = new Image(DialogBoxBenchmark.class.getResourceAsStream("/images/Duchess.png"));
+    }
+
+    @Benchmark
+    public HBox fxmlDialog() throws IOException {
+        return loadFromFxml();
+    }
+
+    @Benchmark
+    public DialogBox templateDialog() {
+        return DialogBox.getDuchessDialog(TEXT, image, Response.Type.ADD);
+    }
+
+    @Benchmark
+    public DialogBox recycledDialog() {
+        // Built on first use so that the cold benchmarks still load DialogBox themselves.
+        if (recycled == null) {
+            recycled = new DialogBox();
+        }
+        recycled.showDuchessMessage(TEXT, image, Response.Type.ADD);
+        return recycled;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public HBox coldFxmlDialog() throws IOException {
+        return loadFromFxml();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public DialogBox coldTemplateDialog() {
+        return DialogBox.getDuchessDialog(TEXT, image, Response.Type.ADD);
+    }
+
+    /**
+     * Builds a dialog box the way DialogBox did before, by loading its FXML layout.
+     */
+    private HBox loadFromFxml() throws IOException {
+        FXMLLoader fxmlLoader = new FXMLLoader(DialogBoxBenchmark.class.getResource("/view/DialogBox.fxml"));
+        HBox root = new HBox();
+        fxmlLoader.setRoot(root);
+        fxmlLoader.load();
+        ((Label) fxmlLoader.getNamespace().get("dialog")).setText(TEXT);
+        ((ImageView) fxmlLoader.getNamespace().get("displayPicture")).setImage(image);
+        return root;
+    }
+}
@@ -0,0 +1,77 @@
+package duchess;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import duchess.command.Response;
+
+/**
+ * Runs Duchess without a window, reading one command per line from a script file or
+ * standard input and printing each reply.
+ *
+ * The whole script runs as one batch: its changes are not journaled command by command,
+ * but saved with a single write once the script ends or says bye. If the process dies
+ * partway through, the changes made by that script are lost and it can simply be run again.
+ */
+public class BatchRunner {
+    public static final String FLAG_BATCH = "--batch";
+
+    /**
+     * Runs the commands in the script named after the batch flag, or in standard input
+     * if no script is named.
+     *
+     * @param args the command line arguments, starting with the batch flag
+     * @return the exit status, 0 if the script could be read and its changes saved
+     */
+    public static int run(String[] args) {
+        String scriptPath = args.length > 1 ? args[1] : null;
+        Duchess duchess = new Duchess();
+        PrintWriter out = new PrintWriter(System.out, false, StandardCharsets.UTF_8);
+
+        int status = 0;
+        duchess.beginBatch();
+        try (BufferedReader in = scriptPath == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(scriptPath), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Response response = duchess.respond(line);
+                out.println(response.getText());
+                if (response.getType() == Response.Type.EXIT) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("The royal scribe cannot read your script, peasant: " + e.getMessage());
+            status = 1;
+        } finally {
+            out.flush();
+        }
+
+        try {
+            duchess.endBatch();
+        } catch (IOException e) {
+            System.err.println("The royal scribe failed to record your script, peasant: " + e.getMessage());
+            status = 1;
+        }
+        return status;
+    }
+
+    /**
+     * Returns whether the given command line arguments ask for batch mode.
+     *
+     * @param args the command line arguments
+     * @return true if the first argument is the batch flag
+     */
+    public static boolean isBatchMode(String[] args) {
+        return args.length > 0 && FLAG_BATCH.equals(args[0]);
+    }
+}
@@ -1,7 +1,23 @@
 package duchess;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.BitSet;
+import java.util.regex.Pattern;
+
+import duchess.command.CommandHandler;
+import duchess.command.CommandRegistry;
+import duchess.command.Response;
 import duchess.list.TodoList;
+import duchess.metrics.LatencyHistogram;
+import duchess.metrics.Metrics;
 import duchess.storage.FileStorage;
+import duchess.parser.ParsedCommand;
 import duchess.parser.Parser;
 import duchess.exception.DuchessException;
 import duchess.task.Task;
@@ -12,10 +28,19 @@ import duchess.task.EventTask;
 /**
  * Starting point of the Duchess chatbot.
  * Handles user commands and input and responds accordingly.
+ *
+ * Commands are looked up in a {@link CommandRegistry} and each handler returns an immutable
+ * {@link Response}, so one Duchess can serve several threads: input is parsed into a
+ * per-thread {@link ParsedCommand}. Commands that change the todo list run one at a time,
+ * each as a single step on the list, while commands that only read it run alongside them
+ * on the latest snapshot.
  */
 public class Duchess {
+    private static final ThreadLocal<ParsedCommand> PARSED_COMMANDS = ThreadLocal.withInitial(ParsedCommand::new);
+
+    private final FileStorage storage;
     private final TodoList todoList;
-    private String commandType;
+    private final CommandRegistry commands = new CommandRegistry();
 
     private static final String COMMAND_BYE = "bye";
     private static final String COMMAND_LIST = "list";
@@ -27,108 +52,159 @@ public class Duchess {
     private static final String COMMAND_DELETE = "delete";
     private static final String COMMAND_FIND = "find";
     private static final String COMMAND_SORT = "sort";
+    private static final String COMMAND_EXPORT = "export";
+    private static final String COMMAND_DUE = "due";
+    private static final String COMMAND_BETWEEN = "between";
+    private static final String COMMAND_UPCOMING = "upcoming";
+    private static final String COMMAND_STATS = "stats";
+
+    private static final String SELECTION_DONE = "done";
+    private static final String SELECTION_SEPARATOR = ",";
+    private static final String RANGE_SEPARATOR = "-";
+    private static final Pattern RANGE = Pattern.compile("\\d+\\s*-\\s*\\d+");
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+
+    private static final String FLAG_PAGE = "--page";
+    private static final String FLAG_PAGE_SIZE = "--page-size";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    private static final int DEFAULT_UPCOMING_DAYS = 7;
+    /** How long before a deadline or event falls due that it is reminded of. */
+    private static final Duration REMINDER_LEAD = Duration.ofDays(1);
+    /** Most tasks listed in one reminder; the rest are only counted. */
+    private static final int MAX_REMINDERS_SHOWN = 10;
 
-    private static final String TYPE_DEFAULT = "DEFAULT";
-    private static final String TYPE_ADD = "ADD";
-    private static final String TYPE_MARK = "MARK";
-    private static final String TYPE_DELETE = "DELETE";
-    private static final String TYPE_EXIT = "EXIT";
-
+    /**
+     * Creates a Duchess keeping the ledger in the default data directory.
+     */
     public Duchess() {
-        this.todoList = FileStorage.fetchTasks();
+        this(new FileStorage(FileStorage.DEFAULT_DIRECTORY));
+    }
+
+    /**
+     * Creates a Duchess keeping the ledger in the given storage, loading it right away.
+     *
+     * @param storage the storage holding the ledger
+     */
+    public Duchess(FileStorage storage) {
+        this.storage = storage;
+        this.todoList = storage.fetchTasks();
+
+        register(COMMAND_TODO, atomically(this::handleTodo));
+        register(COMMAND_DEADLINE, atomically(this::handleDeadline));
+        register(COMMAND_EVENT, atomically(this::handleEvent));
+        register(COMMAND_LIST, this::handleList, "ls");
+        register(COMMAND_MARK, atomically(this::handleMark));
+        register(COMMAND_UNMARK, atomically(this::handleUnmark));
+        register(COMMAND_DELETE, atomically(this::handleDelete), "rm");
+        register(COMMAND_FIND, this::handleFind);
+        register(COMMAND_SORT, atomically(this::handleSort));
+        register(COMMAND_DUE, this::handleDue);
+        register(COMMAND_BETWEEN, this::handleBetween);
+        register(COMMAND_UPCOMING, this::handleUpcoming, "reminders");
+        register(COMMAND_EXPORT, this::handleExport);
+        register(COMMAND_STATS, this::handleStats);
+        register(COMMAND_BYE, this::handleBye, "exit", "quit");
     }
 
     /**
      * Generates a response for the user's chat message.
+     * Safe to call from several threads at once.
+     *
+     * @param input the user's chat message
+     * @return the reply along with the kind of command it answers
      */
-    public String getResponse(String input) {
-        input = normalizeInput(input); // ChatGPT: normalise spaces
+    public Response respond(String input) {
+        long parseStart = System.nanoTime();
+        ParsedCommand command = Parser.parse(input, PARSED_COMMANDS.get());
+        Metrics.PARSE.recordSince(parseStart);
         try {
-            String command = Parser.getCommand(input);
-            assert command != null : "Parsed command should not be null";
-            assert !command.isEmpty() : "Parsed command should not be empty";
-            String rest = Parser.getRest(input);
-
-            switch (command) {
-            case COMMAND_BYE: {
-                commandType = TYPE_EXIT;
-                return getFarewell();
-            }
-
-            case COMMAND_LIST: {
-                commandType = TYPE_DEFAULT;
-                return "Very well. Behold your royal obligations, peasant:\n" + todoList;
-            }
-
-            case COMMAND_MARK: {
-                return handleMark(rest);
-            }
-
-            case COMMAND_UNMARK: {
-                return handleUnmark(rest);
-            }
-
-            case COMMAND_DELETE: {
-                return handleDelete(rest);
-            }
-
-            case COMMAND_TODO: {
-                return handleTodo(rest);
-            }
-
-            case COMMAND_DEADLINE: {
-                return handleDeadline(rest);
-            }
-
-            case COMMAND_EVENT: {
-                return handleEvent(rest);
-            }
+            String word = command.getCommand();
+            assert word != null : "Parsed command should not be null";
+            return commands.resolve(word).handle(command);
+        } catch (DuchessException e) {
+            return new Response(Response.Type.DEFAULT, e.getMessage());
+        }
+    }
 
-            case COMMAND_FIND: {
-                return handleFind(rest);
+    /**
+     * Registers a command whose handling time is recorded under "command." and its name.
+     */
+    private void register(String name, CommandHandler handler, String... aliases) {
+        LatencyHistogram latency = Metrics.latency("command." + name);
+        commands.register(name, command -> {
+            long start = System.nanoTime();
+            try {
+                return handler.handle(command);
+            } finally {
+                latency.recordSince(start);
             }
+        }, aliases);
+    }
 
-            case COMMAND_SORT: {
-                commandType = TYPE_DEFAULT;
+    /**
+     * Wraps a handler that changes the todo list so that it runs as one step on the list,
+     * keeping its checks, its change and its journal record together.
+     */
+    private CommandHandler atomically(CommandHandler handler) {
+        return command -> todoList.atomically(() -> handler.handle(command));
+    }
 
-                if (!rest.trim().isEmpty()) {
-                    throw new DuchessException(
-                            "The sort command requires no additional arguments, peasant."
-                    );
-                }
+    /**
+     * Returns a reminder of the unfinished deadlines and events that have fallen due, or will
+     * within a day, since the last reminder. Each task is reminded of once, unless it is
+     * unmarked again, so this can be called as often as reminders should be checked for.
+     * Safe to call from several threads at once.
+     *
+     * @return the reminder, or null if nothing new has fallen due
+     */
+    public Response remind() {
+        TodoList due = todoList.pollReminders(LocalDateTime.now().plus(REMINDER_LEAD));
+        int count = due.size();
+        if (count == 0) {
+            return null;
+        }
 
-                todoList.sortByTime();
-                return "Very well. I have arranged your obligations in proper chronological order, peasant:\n"
-                        + todoList;
-            }
+        String reminder = "Hear ye, peasant. These obligations are upon you:\n"
+                + due.snapshot().renderPage(1, MAX_REMINDERS_SHOWN);
+        if (count > MAX_REMINDERS_SHOWN) {
+            reminder += "...and " + (count - MAX_REMINDERS_SHOWN) + " more. Type " + COMMAND_UPCOMING
+                    + " to face them all.";
+        }
+        return new Response(Response.Type.DEFAULT, reminder);
+    }
 
-            default: {
-                commandType = TYPE_DEFAULT;
-                throw new DuchessException(
-                        "Foolish peasant. That command is beneath my understanding. "
-                                + "Try: todo, deadline, event, list, mark, unmark, delete, "
-                                + "find, sort, bye" // Written by ChatGPT
-                );
-            }
+    /**
+     * Generates the text of the response for the user's chat message.
+     */
+    public String getResponse(String input) {
+        return respond(input).getText();
+    }
 
-            }
-        } catch (DuchessException e) {
-            commandType = TYPE_DEFAULT;
-            return e.getMessage();
-        }
+    /**
+     * Starts a batch of commands whose changes are saved together when the batch ends.
+     */
+    public void beginBatch() {
+        storage.beginBatch();
     }
 
     /**
-     * Retrieves the type of command the user has inputted.
-     * @return type of user input
+     * Ends the current batch, saving every change made during it with a single write.
+     *
+     * @throws IOException if the changes could not be saved
      */
-    public String getCommandType() {
-        return this.commandType;
+    public void endBatch() throws IOException {
+        storage.endBatch(todoList);
     }
 
-    // Written by ChatGPT
-    private String normalizeInput(String input) {
-        return input.trim().replaceAll("\\s+", " ");
+    /**
+     * Saves every change to disk and releases the storage.
+     * This Duchess must not be used afterwards.
+     */
+    public void close() {
+        storage.close();
     }
 
     /**
@@ -170,27 +246,122 @@ public class Duchess {
         return index;
     }
 
+    /**
+     * Returns whether the input names several tasks, such as "3,7,10-200" or "done",
+     * rather than a single task number. A dash only makes a range between two numbers,
+     * so "-1" is taken as a task number and rejected as one.
+     */
+    private boolean isBulkSelection(String rest) {
+        String selection = rest.trim();
+        return selection.contains(SELECTION_SEPARATOR) || selection.equals(SELECTION_DONE)
+                || RANGE.matcher(selection).matches();
+    }
+
+    /**
+     * Parses a selection of tasks: task numbers and ranges of task numbers separated by
+     * commas, such as "3,7,10-200", or "done" for every task that is done.
+     *
+     * @param rest the remaining user input excluding the command word, containing the selection
+     * @return the zero-based indexes of the selected tasks
+     * @throws DuchessException if a task number is invalid, a range is reversed,
+     *                          or "done" is given and no task is done
+     */
+    private BitSet parseTaskSelection(String rest) throws DuchessException {
+        String selection = rest.replace(" ", "");
+        if (selection.equals(SELECTION_DONE)) {
+            BitSet done = todoList.findDoneTasks();
+            if (done.isEmpty()) {
+                throw new DuchessException("Not a single task of yours is done, peasant. How disappointing.");
+            }
+            return done;
+        }
+
+        BitSet selected = new BitSet(todoList.size());
+        for (String range : selection.split(SELECTION_SEPARATOR, -1)) {
+            // A leading dash is a minus sign, not a range.
+            int separator = range.indexOf(RANGE_SEPARATOR, 1);
+            int start = parseTaskIndex(separator < 0 ? range : range.substring(0, separator));
+            int end = separator < 0 ? start : parseTaskIndex(range.substring(separator + 1));
+            if (end < start) {
+                throw new DuchessException("A range runs from the smaller number to the larger, peasant. "
+                        + range + " does not.");
+            }
+            selected.set(start, end + 1);
+        }
+        return selected;
+    }
+
+    /**
+     * Lists one page of the tasks in the todo list.
+     *
+     * @param command the parsed user input, containing the paging options
+     * @return the numbered tasks on the page
+     * @throws DuchessException if the paging options are invalid
+     */
+    private Response handleList(ParsedCommand command) throws DuchessException {
+        PageRequest page = parsePageRequest(command.getRest());
+        return new Response(Response.Type.DEFAULT,
+                "Very well. Behold your royal obligations, peasant:\n" + renderPage(todoList.snapshot(), page));
+    }
+
+    /**
+     * Sorts the todo list chronologically and lists one page of it.
+     *
+     * @param command the parsed user input, containing the paging options
+     * @return the numbered tasks on the page, in their new order
+     * @throws DuchessException if the paging options are invalid
+     */
+    private Response handleSort(ParsedCommand command) throws DuchessException {
+        PageRequest page = parsePageRequest(command.getRest());
+        // Sorting keeps the number of tasks, so a page missing now is missing after too,
+        // and the ledger is left as it was rather than sorted behind an error.
+        checkPage(todoList.snapshot(), page);
+
+        todoList.sortByTime();
+        storage.appendSort(todoList);
+        return new Response(Response.Type.DEFAULT,
+                "Very well. I have arranged your obligations in proper chronological order, peasant:\n"
+                        + renderPage(todoList.snapshot(), page));
+    }
+
+    /**
+     * Makes sure every change is on disk and bids the user farewell, or keeps the user
+     * if some change could not be saved, so that saying bye again can retry it.
+     *
+     * @param command the parsed user input
+     * @return the farewell, or a warning that the latest changes are not on disk
+     */
+    private Response handleBye(ParsedCommand command) {
+        try {
+            storage.flush();
+        } catch (IOException e) {
+            return new Response(Response.Type.DEFAULT, "The royal scribe failed to record your latest decrees: "
+                    + e.getMessage() + "\nI shall not dismiss you until they are safe. Say bye again, peasant.");
+        }
+        return new Response(Response.Type.EXIT, getFarewell());
+    }
+
     /**
      * Marks a task in the todo list as completed.
      *
-     * @param rest the remaining user input excluding the command word, containing the task number
+     * @param command the parsed user input, containing the task number
      * @return a confirmation message indicating the task was marked
      * @throws DuchessException if the task number is invalid
      */
-    private String handleMark(String rest) throws DuchessException {
-        return updateTaskMarkStatus(rest, true,
+    private Response handleMark(ParsedCommand command) throws DuchessException {
+        return updateTaskMarkStatus(command.getRest(), true,
                 "Impressive, peasant. Even I am mildly pleased.\n");
     }
 
     /**
      * Marks a task in the todo list as not completed.
      *
-     * @param rest the remaining user input excluding the command word, containing the task number
+     * @param command the parsed user input, containing the task number
      * @return a confirmation message indicating the task was unmarked
      * @throws DuchessException if the task number is invalid
      */
-    private String handleUnmark(String rest) throws DuchessException {
-        return updateTaskMarkStatus(rest, false,
+    private Response handleUnmark(ParsedCommand command) throws DuchessException {
+        return updateTaskMarkStatus(command.getRest(), false,
                 "A shame, peasant. I expected better discipline. I shall mark this task as unfinished:\n");
     }
 
@@ -203,66 +374,86 @@ public class Duchess {
      * @return a formatted confirmation message
      * @throws DuchessException if the task number is invalid
      */
-    private String updateTaskMarkStatus(String rest, boolean isMark, String message)
+    private Response updateTaskMarkStatus(String rest, boolean isMark, String message)
             throws DuchessException {
-
-        commandType = TYPE_MARK;
+        if (isBulkSelection(rest)) {
+            BitSet selected = parseTaskSelection(rest);
+            todoList.markTasks(selected, isMark);
+            storage.appendMarkAll(todoList, selected, isMark);
+
+            int count = selected.cardinality();
+            String taskPhrase = count == 1 ? " task is" : " tasks are";
+            return new Response(Response.Type.MARK, isMark
+                    ? "Impressive, peasant. Even I am mildly pleased.\n"
+                            + count + taskPhrase + " now marked as done."
+                    : "A shame, peasant. I expected better discipline.\n"
+                            + count + taskPhrase + " now marked as unfinished.");
+        }
 
         int index = parseTaskIndex(rest);
-        Task task = todoList.getTask(index);
+        Task task = isMark ? todoList.markTask(index) : todoList.unmarkTask(index);
 
-        if (isMark) {
-            task.mark();
-        } else {
-            task.unmark();
-        }
-
-        FileStorage.writeTasks(todoList);
-        return message + task;
+        storage.appendMark(todoList, index, isMark);
+        return new Response(Response.Type.MARK, message + task);
     }
 
     // Written by ChatGPT
-    private String addTaskAndConfirm(Task task) throws DuchessException {
+    private Response addTaskAndConfirm(Task task) throws DuchessException {
         todoList.addTask(task);
-        FileStorage.writeTasks(todoList);
+        storage.appendAdd(todoList, task);
         int size = todoList.size();
         String obligationWord = size == 1 ? "obligation" : "obligations";
-        return "As you command, peasant. I have inscribed this task into the royal ledger:\n"
-                + task
-                + "\nYou now possess " + size + " " + obligationWord + " under my watch.";
+        return new Response(Response.Type.ADD,
+                "As you command, peasant. I have inscribed this task into the royal ledger:\n"
+                        + task
+                        + "\nYou now possess " + size + " " + obligationWord + " under my watch.");
     }
 
     /**
      * Deletes a task from the todo list.
      *
-     * @param rest the remaining user input excluding the command word, containing the task number
+     * @param command the parsed user input, containing the task number
      * @return a confirmation message showing the removed task
      * @throws DuchessException if the task number is invalid
      */
-    private String handleDelete(String rest) throws DuchessException {
-        commandType = TYPE_DELETE;
+    private Response handleDelete(ParsedCommand command) throws DuchessException {
+        String rest = command.getRest();
+
+        if (isBulkSelection(rest)) {
+            BitSet selected = parseTaskSelection(rest);
+            int count = todoList.deleteTasks(selected).size();
+            storage.appendDeleteAll(todoList, selected);
+
+            int size = todoList.size();
+            String taskWord = count == 1 ? "task" : "tasks";
+            String obligationWord = size == 1 ? "obligation" : "obligations";
+            return new Response(Response.Type.DELETE,
+                    "So be it. " + count + " " + taskWord + " shall be erased from existence."
+                            + "\nYou now possess " + size + " " + obligationWord + " under my watch.");
+        }
 
         int index = parseTaskIndex(rest);
         Task removedTask = todoList.deleteTask(index);
 
-        FileStorage.writeTasks(todoList);
+        storage.appendDelete(todoList, index);
         int size = todoList.size();
         String obligationWord = size == 1 ? "obligation" : "obligations";
 
-        return "So be it. This task shall be erased from existence:\n"
-                + removedTask
-                + "\nYou now possess " + size + " " + obligationWord + " under my watch.";
+        return new Response(Response.Type.DELETE,
+                "So be it. This task shall be erased from existence:\n"
+                        + removedTask
+                        + "\nYou now possess " + size + " " + obligationWord + " under my watch.");
     }
 
     /**
      * Creates and adds a todo task to the todo list.
      *
-     * @param rest the description of the todo task
+     * @param command the parsed user input, containing the description of the todo task
      * @return a confirmation message showing the added task
      * @throws DuchessException if the description is empty
      */
-    private String handleTodo(String rest) throws DuchessException {
-        commandType = TYPE_ADD;
+    private Response handleTodo(ParsedCommand command) throws DuchessException {
+        String rest = command.getRest();
 
         if (rest.trim().isEmpty()) {
             throw new DuchessException("You dare present me with an incomplete decree?");
@@ -275,33 +466,29 @@ public class Duchess {
     /**
      * Creates and adds a deadline task to the todo list.
      *
-     * @param rest the user input containing the task description and deadline
+     * @param command the parsed user input containing the task description and deadline
      * @return a confirmation message showing the added task
      * @throws DuchessException if the input format is invalid or incomplete
      */
-    private String handleDeadline(String rest) throws DuchessException {
-        commandType = TYPE_ADD;
-
-        if (!rest.contains("/by")) {
+    private Response handleDeadline(ParsedCommand command) throws DuchessException {
+        if (!command.hasFlag(Parser.FLAG_BY)) {
             throw new DuchessException(
                     "You must declare the deadline using /by.\n"
                             + "Example: deadline buy porridge /by 2026-02-20.\n"
                             + "Even royalty requires proper format, peasant.");
         }
 
-        String[] parts = rest.split("/by", 2);
-        assert parts.length == 2 : "Deadline command should contain /by";
-
-        String description = parts[0].trim();
-        String by = parts[1].trim();
+        String description = command.getDescription(Parser.FLAG_BY);
+        String by = command.getFlag(Parser.FLAG_BY);
 
         if (description.isEmpty() || by.isEmpty()) {
             throw new DuchessException("You dare submit an incomplete decree to the throne, peasant?");
         }
 
+        LocalDate deadline;
         try {
-            java.time.LocalDate.parse(by, java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        } catch (java.time.format.DateTimeParseException e) {
+            deadline = LocalDate.parse(by, DATE_FORMAT);
+        } catch (DateTimeParseException e) {
             throw new DuchessException(
                     "The royal scroll cannot comprehend your deadline.\n"
                             + "You must use the sacred format `YYYY-MM-DD', peasant.\n"
@@ -309,20 +496,18 @@ public class Duchess {
             );
         }
 
-        Task task = new DeadlineTask(description, by);
+        Task task = new DeadlineTask(description, deadline);
         return addTaskAndConfirm(task);
     }
 
     /**
      * Creates and adds an event task to the todo list.
-     * @param rest the user input containing the task description, start, and end time
+     * @param command the parsed user input containing the task description, start, and end time
      * @return a confirmation message showing the added task
      * @throws DuchessException if the input format is invalid or incomplete
      */
-    private String handleEvent(String rest) throws DuchessException {
-        commandType = TYPE_ADD;
-
-        if (!rest.contains("/from") || !rest.contains("/to")) {
+    private Response handleEvent(ParsedCommand command) throws DuchessException {
+        if (!command.hasFlag(Parser.FLAG_FROM) || !command.hasFlag(Parser.FLAG_TO)) {
             throw new DuchessException(
                     "An event without a start and end time? Even chaos has structure, peasant.\n"
                             + "Event tasks require /from and /to times.\n"
@@ -331,48 +516,33 @@ public class Duchess {
             );
         }
 
-        String[] first = rest.split("/from", 2);
-        String description = first[0].trim();
-        assert first.length == 2 : "Event should contain /from";
-
-        String[] second = first[1].split("/to", 2);
-        String from = second[0].trim();
-        String to = second[1].trim();
-
-        assert second.length == 2 : "Event should contain /to";
+        String description = command.getDescription(Parser.FLAG_FROM, Parser.FLAG_TO);
+        String from = command.getFlag(Parser.FLAG_FROM, Parser.FLAG_TO);
+        String to = command.getFlag(Parser.FLAG_TO, Parser.FLAG_FROM);
 
         if (description.isEmpty() || from.isEmpty() || to.isEmpty()) {
             throw new DuchessException("An event without proper detail? Explain yourself, peasant.");
         }
 
         // Written by ChatGPT
-        validateDateTime(from);
-        validateDateTime(to);
-
-        // Written by ChatGPT
-        java.time.format.DateTimeFormatter formatter =
-                java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
-
-        java.time.LocalDateTime start =
-                java.time.LocalDateTime.parse(from, formatter);
-        java.time.LocalDateTime end =
-                java.time.LocalDateTime.parse(to, formatter);
+        LocalDateTime start = parseDateTime(from);
+        LocalDateTime end = parseDateTime(to);
 
         if (start.isAfter(end)) {
             throw new DuchessException("The beginning of an event cannot occur after its end, peasant. "
                     + "Even time obeys order.");
         }
 
-        Task task = new EventTask(description, from, to);
+        Task task = new EventTask(description, start, end);
         return addTaskAndConfirm(task);
     }
 
     // Written by ChatGPT
-    private void validateDateTime(String dateTime) throws DuchessException {
+    private LocalDateTime parseDateTime(String dateTime) throws DuchessException {
         try {
             // Using yyyy-MM-dd HHmm format for simplicity
-            java.time.LocalDateTime.parse(dateTime, java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"));
-        } catch (java.time.format.DateTimeParseException e) {
+            return LocalDateTime.parse(dateTime, DATE_TIME_FORMAT);
+        } catch (DateTimeParseException e) {
             throw new DuchessException(
                     "You must declare time in the sacred format yyyy-MM-dd HHmm.\n"
                             + "Example: 2026-02-16 1400"
@@ -383,28 +553,222 @@ public class Duchess {
     /**
      * Finds and displays tasks that contain the given keyword.
      *
-     * @param rest the keyword used to search for matching tasks
+     * @param command the parsed user input, containing the keyword and paging options
      * @return a list of tasks that match the keyword
      * @throws DuchessException if the keyword is empty
      */
-    private String handleFind(String rest) throws DuchessException {
-        commandType = TYPE_DEFAULT;
+    private Response handleFind(ParsedCommand command) throws DuchessException {
+        String rest = command.getRest();
 
-        if (rest.trim().isEmpty()) {
+        int flagStart = rest.indexOf(FLAG_PAGE);
+        String keyword = flagStart < 0 ? rest : rest.substring(0, flagStart).trim();
+        if (keyword.trim().isEmpty()) {
             throw new DuchessException("Speak your keyword clearly, peasant. Example: find farmwork");
         }
+        PageRequest page = parsePageRequest(flagStart < 0 ? "" : rest.substring(flagStart));
+
+        TodoList matchedTasks = todoList.findTasks(keyword);
+
+        return new Response(Response.Type.DEFAULT,
+                "These are the tasks that match your feeble search, peasant:\n"
+                        + renderPage(matchedTasks.snapshot(), page));
+    }
+
+    /**
+     * Parses paging options: a bare page number, --page N and --page-size N.
+     *
+     * @param args the paging options, possibly empty
+     * @return the requested page, defaulting to the first page of {@link #DEFAULT_PAGE_SIZE} tasks
+     * @throws DuchessException if an option is unknown or its value is not a positive number
+     */
+    private PageRequest parsePageRequest(String args) throws DuchessException {
+        int pageNumber = 1;
+        int pageSize = DEFAULT_PAGE_SIZE;
+        String[] tokens = args.trim().isEmpty() ? new String[0] : args.trim().split(" ");
+
+        for (int i = 0; i < tokens.length; i++) {
+            switch (tokens[i]) {
+            case FLAG_PAGE:
+                pageNumber = parsePositive(i + 1 < tokens.length ? tokens[++i] : "");
+                break;
+            case FLAG_PAGE_SIZE:
+                pageSize = parsePositive(i + 1 < tokens.length ? tokens[++i] : "");
+                break;
+            default:
+                pageNumber = parsePositive(tokens[i]);
+            }
+        }
+
+        return new PageRequest(pageNumber, pageSize);
+    }
+
+    private int parsePositive(String token) throws DuchessException {
+        try {
+            int value = Integer.parseInt(token);
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the error below
+        }
+        throw new DuchessException("I only understand a page number, " + FLAG_PAGE + " N and "
+                + FLAG_PAGE_SIZE + " N here, peasant. Example: list 2 " + FLAG_PAGE_SIZE + " 20");
+    }
 
-        TodoList matchedTasks = todoList.findTasks(rest);
+    /**
+     * Checks that the given page exists in the given list.
+     *
+     * @param list the list to be rendered
+     * @param page the page to be rendered
+     * @return the number of pages in the list
+     * @throws DuchessException if the page does not exist
+     */
+    private int checkPage(TodoList.Snapshot list, PageRequest page) throws DuchessException {
+        int pageCount = list.getPageCount(page.size);
+        if (page.number > pageCount) {
+            throw new DuchessException("There is no page " + page.number + ", peasant. "
+                    + "Your ledger spans only " + pageCount + (pageCount == 1 ? " page." : " pages."));
+        }
+        return pageCount;
+    }
 
-        return "These are the tasks that match your feeble search, peasant:\n" + matchedTasks;
+    /**
+     * Renders one page of the given list, adding a footer when there is more than one page.
+     *
+     * @param list the list to render
+     * @param page the page to render
+     * @return the numbered lines of the page
+     * @throws DuchessException if the page does not exist
+     */
+    private String renderPage(TodoList.Snapshot list, PageRequest page) throws DuchessException {
+        int pageCount = checkPage(list, page);
+        String lines = list.renderPage(page.number, page.size);
+        if (pageCount == 1) {
+            return lines;
+        }
+        return lines + "Page " + page.number + " of " + pageCount + ", peasant.";
     }
 
     /**
-     * Returns Duchess's royal greeting.
+     * Finds and displays deadlines due on or before the given date.
+     *
+     * @param command the parsed user input, containing the date in yyyy-MM-dd format
+     * @return a list of deadlines due by the date, earliest first
+     * @throws DuchessException if the date is missing or malformed
+     */
+    private Response handleDue(ParsedCommand command) throws DuchessException {
+        LocalDate date;
+        try {
+            date = LocalDate.parse(command.getRest(), DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new DuchessException(
+                    "By when, peasant? Use the sacred format `YYYY-MM-DD'.\n"
+                            + "Example: due 2026-02-20"
+            );
+        }
+
+        TodoList dueTasks = todoList.findDeadlinesDueBy(date);
+        return new Response(Response.Type.DEFAULT, "These obligations fall due by then, peasant:\n" + dueTasks);
+    }
+
+    /**
+     * Finds and displays events starting within the given period.
+     *
+     * @param command the parsed user input containing the start and end of the period
+     * @return a list of events starting within the period, earliest first
+     * @throws DuchessException if the input format is invalid or incomplete
+     */
+    private Response handleBetween(ParsedCommand command) throws DuchessException {
+        if (!command.hasFlag(Parser.FLAG_FROM) || !command.hasFlag(Parser.FLAG_TO)) {
+            throw new DuchessException(
+                    "Between when, peasant? Declare the period with /from and /to.\n"
+                            + "Example: between /from 2026-02-16 0000 /to 2026-02-22 2359"
+            );
+        }
+
+        LocalDateTime from = parseDateTime(command.getFlag(Parser.FLAG_FROM, Parser.FLAG_TO));
+        LocalDateTime to = parseDateTime(command.getFlag(Parser.FLAG_TO, Parser.FLAG_FROM));
+        TodoList events = todoList.findEventsStartingBetween(from, to);
+
+        return new Response(Response.Type.DEFAULT,
+                "These are the events that begin in that period, peasant:\n" + events);
+    }
+
+    /**
+     * Finds and displays the unfinished deadlines and events that are overdue or fall due
+     * within the given number of days.
+     *
+     * @param command the parsed user input, containing the number of days, if any
+     * @return a list of the tasks falling due, earliest first
+     * @throws DuchessException if the number of days is not a positive number
+     */
+    private Response handleUpcoming(ParsedCommand command) throws DuchessException {
+        String rest = command.getRest();
+        int days = DEFAULT_UPCOMING_DAYS;
+        if (!rest.isEmpty()) {
+            try {
+                days = Integer.parseInt(rest);
+            } catch (NumberFormatException e) {
+                days = 0;
+            }
+            if (days <= 0) {
+                throw new DuchessException("How many days ahead, peasant? Give me a whole number.\n"
+                        + "Example: upcoming 14");
+            }
+        }
+
+        TodoList dueTasks = todoList.findUnfinishedDueBy(LocalDateTime.now().plusDays(days));
+        return new Response(Response.Type.DEFAULT, "These obligations are overdue or fall due within "
+                + days + (days == 1 ? " day" : " days") + ", peasant:\n" + dueTasks);
+    }
+
+    /**
+     * Reports the counters and latencies recorded since startup.
+     *
+     * @param command the parsed user input
+     * @return one line per metric recorded so far
+     * @throws DuchessException if any arguments are given
+     */
+    private Response handleStats(ParsedCommand command) throws DuchessException {
+        if (!command.getRest().isEmpty()) {
+            throw new DuchessException("The stats command requires no additional arguments, peasant.");
+        }
+
+        String summary = Metrics.render();
+        return new Response(Response.Type.DEFAULT, summary.isEmpty()
+                ? "Nothing has happened worth accounting for, peasant."
+                : "The royal accounts, peasant:\n" + summary);
+    }
+
+    /**
+     * Writes a human-readable copy of the todo list to disk.
+     *
+     * @param command the parsed user input, which should have nothing after the command word
+     * @return a message naming the exported file
+     * @throws DuchessException if arguments are given or the file cannot be written
+     */
+    private Response handleExport(ParsedCommand command) throws DuchessException {
+        if (!command.getRest().isEmpty()) {
+            throw new DuchessException("The export command requires no additional arguments, peasant.");
+        }
+
+        try {
+            Path path = storage.exportText(todoList);
+            return new Response(Response.Type.DEFAULT,
+                    "I have transcribed your royal ledger for lesser eyes, peasant:\n" + path);
+        } catch (IOException e) {
+            throw new DuchessException("The royal scribe has failed to transcribe your ledger: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns Duchess's royal greeting, along with any note about how the ledger was loaded.
      * @return greeting
      */
     public String getGreeting() {
-        return "Bow before Duchess. State your business, peasant.";
+        String greeting = "Bow before Duchess. State your business, peasant.";
+        String notice = storage.getLoadNotice();
+        return notice == null ? greeting : greeting + "\n" + notice;
     }
 
     /**
@@ -414,4 +778,17 @@ public class Duchess {
     public String getFarewell() {
         return "You are dismissed, peasant. Return when you require my wisdom again.";
     }
+
+    /**
+     * A page of a listing requested by the user.
+     */
+    private static class PageRequest {
+        private final int number;
+        private final int size;
+
+        PageRequest(int number, int size) {
+            this.number = number;
+            this.size = size;
+        }
+    }
 }
@@ -0,0 +1,19 @@
+package duchess.command;
+
+import duchess.exception.DuchessException;
+import duchess.parser.ParsedCommand;
+
+/**
+ * Carries out one kind of command.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+    /**
+     * Carries out the given command and returns the reply.
+     *
+     * @param command the parsed user input
+     * @return the reply to the command
+     * @throws DuchessException if the command is invalid
+     */
+    Response handle(ParsedCommand command) throws DuchessException;
+}
@@ -0,0 +1,109 @@
+package duchess.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import duchess.exception.DuchessException;
+
+/**
+ * Maps command words to the handlers that carry them out.
+ *
+ * A command can be reached by its name, by any of its aliases, or by any prefix of its name
+ * or aliases that belongs to no other command, so "dead" reaches deadline while "de" is
+ * refused because it could be deadline or delete.
+ */
+public class CommandRegistry {
+    private final TreeMap<String, Entry> entries = new TreeMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * Registers a command under its name and aliases.
+     *
+     * @param name the name of the command
+     * @param handler the handler carrying the command out
+     * @param aliases other words that reach the command
+     * @throws IllegalArgumentException if the name or an alias is already taken
+     */
+    public void register(String name, CommandHandler handler, String... aliases) {
+        checkFree(name);
+        for (String alias : aliases) {
+            checkFree(alias);
+        }
+
+        Entry entry = new Entry(name, handler);
+        entries.put(name, entry);
+        for (String alias : aliases) {
+            entries.put(alias, entry);
+        }
+        names.add(name);
+    }
+
+    /**
+     * Returns the handler for the given command word.
+     *
+     * @param word the command word typed by the user
+     * @return the handler of the command
+     * @throws DuchessException if no command matches, or the word is a prefix of several commands
+     */
+    public CommandHandler resolve(String word) throws DuchessException {
+        Entry exact = entries.get(word);
+        if (exact != null) {
+            return exact.handler;
+        }
+
+        Set<Entry> matches = new HashSet<>();
+        if (!word.isEmpty()) {
+            SortedMap<String, Entry> prefixed = entries.subMap(word, word + Character.MAX_VALUE);
+            matches.addAll(prefixed.values());
+        }
+
+        if (matches.size() == 1) {
+            return matches.iterator().next().handler;
+        }
+        if (matches.isEmpty()) {
+            throw new DuchessException("Foolish peasant. That command is beneath my understanding. "
+                    + "Try: " + String.join(", ", names));
+        }
+
+        List<String> candidates = new ArrayList<>();
+        for (Entry match : matches) {
+            candidates.add(match.name);
+        }
+        Collections.sort(candidates);
+        throw new DuchessException("Speak plainly, peasant. Do you mean "
+                + String.join(" or ", candidates) + "?");
+    }
+
+    /**
+     * Returns the names of the registered commands, in the order they were registered.
+     *
+     * @return the command names
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    private void checkFree(String word) {
+        if (entries.containsKey(word)) {
+            throw new IllegalArgumentException("Command word already taken: " + word);
+        }
+    }
+
+    /**
+     * A registered command.
+     */
+    private static class Entry {
+        private final String name;
+        private final CommandHandler handler;
+
+        Entry(String name, CommandHandler handler) {
+            this.name = name;
+            this.handler = handler;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package duchess.command;
+
+/**
+ * Represents Duchess's reply to one command, along with the kind of command it answers.
+ * Responses are immutable, so they can be handed between threads freely.
+ */
+public final class Response {
+    /**
+     * The kind of command a response answers, which decides how the reply is shown.
+     */
+    public enum Type {
+        DEFAULT, ADD, MARK, DELETE, EXIT
+    }
+
+    private final Type type;
+    private final String text;
+
+    /**
+     * Creates a response of the given type.
+     *
+     * @param type the kind of command answered
+     * @param text the reply to show the user
+     */
+    public Response(Type type, String text) {
+        this.type = type;
+        this.text = text;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
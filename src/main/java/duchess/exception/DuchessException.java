@@ -3,6 +3,8 @@ package duchess.exception;
  * Exception for errors in the Duchess chatbot.
  */
 public class DuchessException extends Exception {
+    private static final long serialVersionUID = 1L;
+
     /**
      * Creates a new DuchessException with the given message.
      *
@@ -0,0 +1,148 @@
+package duchess.list;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Burkhard-Keller tree of distinct words, for finding every word within an edit distance
+ * of a given one without comparing it against them all.
+ *
+ * Each child hangs off its parent under its edit distance from the parent. By the triangle
+ * inequality, words within k edits of a query that is d edits from a node can only lie under
+ * that node's children at distances d - k to d + k, so the rest of the tree is skipped.
+ */
+class BkTree {
+    /** Every word in the tree, so that words already added are turned away at once. */
+    private final Set<String> words = new HashSet<>();
+    private Node root;
+
+    /**
+     * Adds a word unless it is already in the tree.
+     *
+     * @param word the word to add
+     */
+    void add(String word) {
+        if (!words.add(word)) {
+            return;
+        }
+        if (root == null) {
+            root = new Node(word);
+            return;
+        }
+
+        Node node = root;
+        while (true) {
+            int distance = distance(word, node.word);
+            Node child = node.childAt(distance);
+            if (child == null) {
+                node.setChild(distance, new Node(word));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Returns the words within the given edit distance of a word, closest first.
+     *
+     * @param word the word to look for
+     * @param maxDistance the most edits allowed
+     * @return the matching words, with their distances
+     */
+    List<Match> search(String word, int maxDistance) {
+        List<List<String>> byDistance = new ArrayList<>();
+        for (int i = 0; i <= maxDistance; i++) {
+            byDistance.add(new ArrayList<>());
+        }
+
+        Deque<Node> pending = new ArrayDeque<>();
+        if (root != null) {
+            pending.push(root);
+        }
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(word, node.word);
+            if (distance <= maxDistance) {
+                byDistance.get(distance).add(node.word);
+            }
+            int last = Math.min(distance + maxDistance, node.children.length - 1);
+            for (int d = Math.max(1, distance - maxDistance); d <= last; d++) {
+                if (node.children[d] != null) {
+                    pending.push(node.children[d]);
+                }
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (int distance = 0; distance <= maxDistance; distance++) {
+            for (String match : byDistance.get(distance)) {
+                matches.add(new Match(match, distance));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the Levenshtein distance between two words: the fewest single-character
+     * insertions, deletions and substitutions turning one into the other.
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * A word found by a search, along with its edit distance from the word looked for.
+     */
+    static final class Match {
+        final String word;
+        final int distance;
+
+        Match(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+    }
+
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private final String word;
+        private Node[] children = NO_CHILDREN;
+
+        Node(String word) {
+            this.word = word;
+        }
+
+        Node childAt(int distance) {
+            return distance < children.length ? children[distance] : null;
+        }
+
+        void setChild(int distance, Node child) {
+            if (distance >= children.length) {
+                children = Arrays.copyOf(children, distance + 1);
+            }
+            children[distance] = child;
+        }
+    }
+}
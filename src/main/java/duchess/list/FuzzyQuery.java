@@ -0,0 +1,216 @@
+package duchess.list;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import duchess.task.Task;
+
+/**
+ * A keyword to find, along with the rules for matching it when it is misspelt.
+ *
+ * A description matches exactly if it contains the keyword as typed. Failing that, it
+ * matches if every word of the keyword is close enough to some word of the description,
+ * case aside: words of three letters, or with digits, must be spelt the same, words of four
+ * or five letters may be one edit off, and longer ones two. Words of the keyword shorter
+ * than three letters are left out of this. Exact matches rank first, then the rest by the
+ * total number of edits, and ties keep list order.
+ */
+final class FuzzyQuery {
+    static final int MIN_WORD_LENGTH = 3;
+
+    private final String keyword;
+    private final List<String> words;
+    private final int[] maxEdits;
+
+    /**
+     * Creates a query for the given keyword.
+     *
+     * @param keyword the keyword as typed
+     */
+    FuzzyQuery(String keyword) {
+        this.keyword = keyword;
+        this.words = new ArrayList<>();
+        for (String word : splitWords(keyword)) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                words.add(word);
+            }
+        }
+        this.maxEdits = new int[words.size()];
+        for (int i = 0; i < words.size(); i++) {
+            maxEdits[i] = maxEdits(words.get(i));
+        }
+    }
+
+    String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Returns the lower-case words of the keyword that are matched when it is misspelt.
+     */
+    List<String> getWords() {
+        return words;
+    }
+
+    /**
+     * Returns the most edits allowed between the word at the given index and a word of a
+     * description.
+     */
+    int getMaxEdits(int index) {
+        return maxEdits[index];
+    }
+
+    /**
+     * Returns the highest rank a match can have.
+     */
+    int getLowestRank() {
+        int rank = 1;
+        for (int edits : maxEdits) {
+            rank += edits;
+        }
+        return rank;
+    }
+
+    /**
+     * Ranks a description against the query by comparing every pair of words, for when
+     * there is no index to narrow down the descriptions worth comparing.
+     *
+     * @param description the description of a task
+     * @return 0 for an exact match, 1 plus the number of edits for a misspelt match,
+     *     or -1 if the description does not match
+     */
+    int rank(String description) {
+        if (description.contains(keyword)) {
+            return 0;
+        }
+        if (words.isEmpty()) {
+            return -1;
+        }
+
+        List<String> descriptionWords = splitWords(description);
+        int rank = 1;
+        for (int i = 0; i < words.size(); i++) {
+            int best = -1;
+            for (String descriptionWord : descriptionWords) {
+                int edits = edits(i, descriptionWord);
+                if (edits >= 0 && (best < 0 || edits < best)) {
+                    best = edits;
+                }
+            }
+            if (best < 0) {
+                return -1;
+            }
+            rank += best;
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the edits between the word at the given index and a word of a description,
+     * or -1 if they are further apart than allowed.
+     */
+    private int edits(int index, String descriptionWord) {
+        String word = words.get(index);
+        if (maxEdits[index] == 0 || !isVocabularyWord(descriptionWord)) {
+            return word.equals(descriptionWord) ? 0 : -1;
+        }
+        if (Math.abs(word.length() - descriptionWord.length()) > maxEdits[index]) {
+            return -1;
+        }
+        int edits = BkTree.distance(word, descriptionWord);
+        return edits <= maxEdits[index] ? edits : -1;
+    }
+
+    private static int maxEdits(String word) {
+        if (word.length() <= MIN_WORD_LENGTH || hasDigit(word)) {
+            return 0;
+        }
+        return word.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Returns whether a word of a description may stand in for a misspelt word of a
+     * keyword: words too short to be misspelt, and numbers, are only matched as they are.
+     *
+     * @param word a lower-case word
+     * @return true if the word can be matched with edits
+     */
+    static boolean isVocabularyWord(String word) {
+        return word.length() >= MIN_WORD_LENGTH && !hasDigit(word);
+    }
+
+    private static boolean hasDigit(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isDigit(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Splits text into its lower-case words, runs of letters and digits.
+     *
+     * @param text the text to split
+     * @return the words in order
+     */
+    static List<String> splitWords(String text) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Returns whether text contains the given lower-case word as a whole word, case aside.
+     *
+     * @param text the text to look in
+     * @param word the word to look for, as returned by {@link #splitWords}
+     * @return true if the word is one of the words of the text
+     */
+    static boolean containsWord(String text, String word) {
+        int last = text.length() - word.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, word, 0, word.length())
+                    && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)))
+                    && (i == last || !Character.isLetterOrDigit(text.charAt(i + word.length())))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collects matched tasks by rank, so that they come out best first, and in the order
+     * they were added within a rank.
+     */
+    static final class Ranking {
+        private final List<List<Task>> byRank = new ArrayList<>();
+
+        Ranking(FuzzyQuery query) {
+            for (int rank = 0; rank <= query.getLowestRank(); rank++) {
+                byRank.add(new ArrayList<>());
+            }
+        }
+
+        void add(Task task, int rank) {
+            byRank.get(rank).add(task);
+        }
+
+        List<Task> toList() {
+            List<Task> ranked = new ArrayList<>();
+            for (List<Task> tasks : byRank) {
+                ranked.addAll(tasks);
+            }
+            return ranked;
+        }
+    }
+}
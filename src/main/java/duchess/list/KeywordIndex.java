@@ -0,0 +1,362 @@
+package duchess.list;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import duchess.metrics.Metrics;
+import duchess.task.Task;
+
+/**
+ * Inverted index from the trigrams of each task description to the tasks containing them.
+ *
+ * Every task is given an id in the order it was indexed, and each posting list holds ids in
+ * ascending order. Ids stay with their task however the list is reordered, and matches are put
+ * in list order by the keys of a {@link ListOrder}, so sorting the list or inserting a task
+ * before others leaves the postings as they are. Removed tasks leave stale ids behind in their
+ * posting lists, which are skipped during lookups and dropped when the index is rebuilt.
+ *
+ * Trigrams are indexed in lower case, so that words can be looked up case aside. The words
+ * of every description also go into a {@link BkTree}, from which misspelt words of a keyword
+ * are corrected before their tasks are looked up by trigram.
+ */
+class KeywordIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final ListOrder order;
+    private final Map<Long, IdList> postings = new HashMap<>();
+    private BkTree vocabulary = new BkTree();
+    private final Map<Task, Integer> ids = new IdentityHashMap<>();
+    private Task[] tasksById = new Task[16];
+    private int nextId;
+    private long livePostings;
+    private long stalePostings;
+
+    /**
+     * Creates an empty index whose matches follow the given order.
+     *
+     * @param order the order of the tasks in the list
+     */
+    KeywordIndex(ListOrder order) {
+        this.order = order;
+    }
+
+    /**
+     * Indexes a task that was added to the list.
+     *
+     * @param task the added task
+     */
+    void add(Task task) {
+        int id = nextId++;
+        if (id == tasksById.length) {
+            tasksById = Arrays.copyOf(tasksById, id * 2);
+        }
+        tasksById[id] = task;
+        ids.put(task, id);
+
+        String description = task.getDescription();
+        for (int i = 0; i + GRAM_LENGTH <= description.length(); i++) {
+            postings.computeIfAbsent(gramAt(description, i), key -> new IdList()).addIfAbsent(id);
+        }
+        for (String word : FuzzyQuery.splitWords(description)) {
+            if (FuzzyQuery.isVocabularyWord(word)) {
+                vocabulary.add(word);
+            }
+        }
+        livePostings += gramCount(task);
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task the removed task
+     */
+    void remove(Task task) {
+        Integer id = ids.remove(task);
+        if (id == null) {
+            return;
+        }
+        tasksById[id] = null;
+
+        livePostings -= gramCount(task);
+        stalePostings += gramCount(task);
+    }
+
+    /**
+     * Puts a copy of a task, with the same description, in the place of the task.
+     *
+     * @param task the indexed task
+     * @param replacement the task taking its place
+     */
+    void replace(Task task, Task replacement) {
+        Integer id = ids.remove(task);
+        if (id == null) {
+            return;
+        }
+        tasksById[id] = replacement;
+        ids.put(replacement, id);
+    }
+
+    /**
+     * Returns whether stale postings have piled up enough that the index should be rebuilt.
+     *
+     * @return true if more postings are stale than live
+     */
+    boolean needsRebuild() {
+        return stalePostings > livePostings;
+    }
+
+    /**
+     * Discards the index and rebuilds it from the given tasks, dropping stale postings.
+     *
+     * @param tasks every task in the list, in list order
+     */
+    void rebuild(List<Task> tasks) {
+        postings.clear();
+        vocabulary = new BkTree();
+        ids.clear();
+        tasksById = new Task[Math.max(16, tasks.size())];
+        nextId = 0;
+        livePostings = 0;
+        stalePostings = 0;
+
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    /**
+     * Returns the tasks whose description contains the given keyword, in list order.
+     * Keywords shorter than a trigram fall back to checking every task.
+     *
+     * @param keyword the substring to look for
+     * @return the matching tasks
+     */
+    List<Task> find(String keyword) {
+        List<Task> matched = new ArrayList<>();
+        for (int id : inListOrder(findExact(keyword))) {
+            matched.add(tasksById[id]);
+        }
+        return matched;
+    }
+
+    /**
+     * Returns the tasks matching the given keyword, exactly or misspelt, best match first,
+     * as ranked by {@link FuzzyQuery}.
+     *
+     * Misspelt words are corrected against the words of every description, then only the
+     * tasks holding a correction are checked, so no edit distance is worked out per task.
+     *
+     * @param keyword the keyword to look for
+     * @return the matching tasks, ranked
+     */
+    List<Task> findRanked(String keyword) {
+        FuzzyQuery query = new FuzzyQuery(keyword);
+        BitSet exact = findExact(keyword);
+        int[] edits = new int[nextId];
+        BitSet matched = findWords(query, edits);
+        matched.or(exact);
+
+        FuzzyQuery.Ranking ranking = new FuzzyQuery.Ranking(query);
+        for (int id : inListOrder(matched)) {
+            ranking.add(tasksById[id], exact.get(id) ? 0 : 1 + edits[id]);
+        }
+        return ranking.toList();
+    }
+
+    /**
+     * Returns the given ids in the list order of their tasks. Ids already follow list order
+     * unless the list was reordered since they were given out, so they are only sorted then.
+     */
+    private int[] inListOrder(BitSet matched) {
+        int[] ids = matched.stream().toArray();
+        long[] keys = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            keys[i] = order.keyOf(tasksById[ids[i]]);
+        }
+        int[] ascending = ListOrder.ascendingOrder(keys);
+        if (ascending == null) {
+            return ids;
+        }
+
+        int[] sorted = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            sorted[i] = ids[ascending[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * Returns the ids of the tasks whose description contains the given keyword as typed.
+     */
+    private BitSet findExact(String keyword) {
+        BitSet matched = new BitSet();
+        if (keyword.length() < GRAM_LENGTH) {
+            Metrics.FIND_SCANNED.add(nextId);
+            for (int id = 0; id < nextId; id++) {
+                Task task = tasksById[id];
+                if (task != null && task.getDescription().contains(keyword)) {
+                    matched.set(id);
+                }
+            }
+            return matched;
+        }
+
+        IdList shortest = shortestPostings(keyword);
+        if (shortest == null) {
+            return matched;
+        }
+        Metrics.FIND_SCANNED.add(shortest.size);
+        for (int i = 0; i < shortest.size; i++) {
+            int id = shortest.ids[i];
+            Task task = tasksById[id];
+            if (task != null && task.getDescription().contains(keyword)) {
+                matched.set(id);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Returns the ids of the tasks with a close enough word for every word of the query,
+     * adding the edits each needs to the given array.
+     *
+     * The word with the fewest tasks to check is looked up first, and the tasks found are
+     * then checked for each other word in turn, unless looking that word up costs less.
+     */
+    private BitSet findWords(FuzzyQuery query, int[] edits) {
+        List<String> words = query.getWords();
+        List<List<BkTree.Match>> corrections = new ArrayList<>();
+        long[] costs = new long[words.size()];
+        Integer[] order = new Integer[words.size()];
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            List<BkTree.Match> matches = query.getMaxEdits(i) == 0
+                    ? List.of(new BkTree.Match(word, 0))
+                    : vocabulary.search(word, query.getMaxEdits(i));
+            corrections.add(matches);
+            for (BkTree.Match match : matches) {
+                IdList postingList = shortestPostings(match.word);
+                costs[i] += postingList == null ? 0 : postingList.size;
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(costs[a], costs[b]));
+
+        BitSet matched = null;
+        for (int i : order) {
+            if (matched == null || costs[i] < (long) matched.cardinality() * corrections.get(i).size()) {
+                matched = lookUpWord(corrections.get(i), matched, edits);
+            } else {
+                matched = checkWord(corrections.get(i), matched, edits);
+            }
+            if (matched.isEmpty()) {
+                break;
+            }
+        }
+        return matched == null ? new BitSet() : matched;
+    }
+
+    /**
+     * Finds the tasks holding any of the given corrections of a word through the posting
+     * lists of the corrections, keeping only those among the given tasks if there are any.
+     * Corrections come closest first, so each task is credited with its closest one.
+     */
+    private BitSet lookUpWord(List<BkTree.Match> corrections, BitSet within, int[] edits) {
+        BitSet found = new BitSet();
+        for (BkTree.Match correction : corrections) {
+            IdList postingList = shortestPostings(correction.word);
+            if (postingList == null) {
+                continue;
+            }
+            Metrics.FIND_SCANNED.add(postingList.size);
+            for (int i = 0; i < postingList.size; i++) {
+                int id = postingList.ids[i];
+                Task task = tasksById[id];
+                if (task != null && !found.get(id) && (within == null || within.get(id))
+                        && FuzzyQuery.containsWord(task.getDescription(), correction.word)) {
+                    found.set(id);
+                    edits[id] += correction.distance;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Keeps the given tasks that hold any of the given corrections of a word, checking
+     * each task directly.
+     */
+    private BitSet checkWord(List<BkTree.Match> corrections, BitSet within, int[] edits) {
+        BitSet found = new BitSet();
+        Metrics.FIND_SCANNED.add(within.cardinality());
+        for (int id = within.nextSetBit(0); id >= 0; id = within.nextSetBit(id + 1)) {
+            String description = tasksById[id].getDescription();
+            for (BkTree.Match correction : corrections) {
+                if (FuzzyQuery.containsWord(description, correction.word)) {
+                    found.set(id);
+                    edits[id] += correction.distance;
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the shortest posting list among the trigrams of the given text, or null if
+     * some trigram of it appears in no description.
+     */
+    private IdList shortestPostings(String text) {
+        IdList shortest = null;
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            IdList list = postings.get(gramAt(text, i));
+            if (list == null) {
+                return null;
+            }
+            if (shortest == null || list.size < shortest.size) {
+                shortest = list;
+            }
+        }
+        return shortest;
+    }
+
+    private static long gramCount(Task task) {
+        return Math.max(0, task.getDescription().length() - GRAM_LENGTH + 1);
+    }
+
+    /**
+     * Packs the three chars starting at the given index, in lower case, into one key.
+     */
+    private static long gramAt(String text, int index) {
+        return ((long) Character.toLowerCase(text.charAt(index)) << 32)
+                | ((long) Character.toLowerCase(text.charAt(index + 1)) << 16)
+                | Character.toLowerCase(text.charAt(index + 2));
+    }
+
+    /**
+     * Growable array of task ids in ascending order.
+     */
+    private static class IdList {
+        private int[] ids = new int[4];
+        private int size;
+
+        /**
+         * Appends an id unless it was the last one appended.
+         * Ids are only ever appended in ascending order, so this is enough to avoid duplicates.
+         */
+        void addIfAbsent(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
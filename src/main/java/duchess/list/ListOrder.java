@@ -0,0 +1,147 @@
+package duchess.list;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import duchess.task.Task;
+
+/**
+ * Gives every task of a list a key that follows its position, so that the indexes can hand
+ * out tasks in list order while numbering them however suits them.
+ *
+ * Keys are spaced widely apart, so a task inserted before others takes a key between those
+ * of its neighbours and nothing else changes. Only once neighbours have no key left between
+ * them, or the list is reordered, are the keys handed out afresh in list order, which touches
+ * the keys alone and none of the indexes.
+ */
+class ListOrder {
+    private static final long GAP = 1L << 32;
+
+    private final Map<Task, Long> keys = new IdentityHashMap<>();
+    /** The highest key handed out, which tasks added at the end are placed after. */
+    private long lastKey = -GAP;
+
+    /**
+     * Gives a key to a task just placed in a list.
+     *
+     * @param tasks every task in the list, in list order
+     * @param index the index the task was placed at
+     */
+    void add(List<Task> tasks, int index) {
+        Task task = tasks.get(index);
+        if (index == tasks.size() - 1) {
+            if (lastKey > Long.MAX_VALUE - GAP) {
+                relabel(tasks);
+                return;
+            }
+            lastKey += GAP;
+            keys.put(task, lastKey);
+            return;
+        }
+
+        long lower = index == 0 ? Long.MIN_VALUE : keyOf(tasks.get(index - 1));
+        long upper = keyOf(tasks.get(index + 1));
+        // Halves the sum without overflowing it.
+        long middle = (lower & upper) + ((lower ^ upper) >> 1);
+        if (middle > lower && middle < upper) {
+            keys.put(task, middle);
+        } else {
+            relabel(tasks);
+        }
+    }
+
+    /**
+     * Forgets the key of a removed task.
+     *
+     * @param task the removed task
+     */
+    void remove(Task task) {
+        keys.remove(task);
+    }
+
+    /**
+     * Hands the key of a task to the copy taking its place.
+     *
+     * @param task the task with a key
+     * @param replacement the task taking its place
+     */
+    void replace(Task task, Task replacement) {
+        Long key = keys.remove(task);
+        if (key != null) {
+            keys.put(replacement, key);
+        }
+    }
+
+    /**
+     * Hands out every key afresh, in the order of the given tasks.
+     *
+     * @param tasks every task in the list, in list order
+     */
+    void relabel(List<Task> tasks) {
+        keys.clear();
+        long key = 0;
+        for (Task task : tasks) {
+            keys.put(task, key);
+            key += GAP;
+        }
+        lastKey = key - GAP;
+    }
+
+    /**
+     * Returns the key of a task in the list; tasks earlier in the list have lower keys.
+     *
+     * @param task a task in the list
+     * @return the key of the task
+     */
+    long keyOf(Task task) {
+        Long key = keys.get(task);
+        assert key != null : "Task not in the list order";
+        return key;
+    }
+
+    /**
+     * Puts tasks of the list in list order, looking up the key of each task only once.
+     *
+     * @param tasks the tasks to sort
+     */
+    void sort(List<Task> tasks) {
+        long[] taskKeys = new long[tasks.size()];
+        for (int i = 0; i < taskKeys.length; i++) {
+            taskKeys[i] = keyOf(tasks.get(i));
+        }
+        int[] ascending = ascendingOrder(taskKeys);
+        if (ascending != null) {
+            Task[] unsorted = tasks.toArray(new Task[0]);
+            for (int i = 0; i < unsorted.length; i++) {
+                tasks.set(i, unsorted[ascending[i]]);
+            }
+        }
+    }
+
+    /**
+     * Returns the indexes of the given distinct keys from the lowest key to the highest,
+     * or null if the keys already ascend.
+     *
+     * @param keys the keys to order
+     * @return the indexes in key order, or null
+     */
+    static int[] ascendingOrder(long[] keys) {
+        int i = 1;
+        while (i < keys.length && keys[i - 1] < keys[i]) {
+            i++;
+        }
+        if (i >= keys.length) {
+            return null;
+        }
+
+        long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        int[] ascending = new int[keys.length];
+        for (int j = 0; j < keys.length; j++) {
+            ascending[Arrays.binarySearch(sorted, keys[j])] = j;
+        }
+        return ascending;
+    }
+}
@@ -0,0 +1,459 @@
+package duchess.list;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import duchess.task.Task;
+
+/**
+ * Holds tasks outside the Java heap, for ledgers of tens of millions of tasks on servers
+ * that cannot afford to have the collector walk them.
+ *
+ * Each task is a fixed-width record in a direct buffer, holding its type, its times in epoch
+ * seconds and where its description lies in a second direct buffer of UTF-8 bytes. Records
+ * and descriptions are only ever appended, so the buffers can be shared with the views
+ * returned by {@link #freeze()} without copying. What changes after a task is added, its done
+ * status and whether it was deleted, is kept on the heap in bits, which cost the collector
+ * nothing to trace since they are a few primitive arrays.
+ *
+ * Deleting a task only sets its tombstone bit, so task numbers are mapped to records by
+ * counting the tombstones before them, one count per block of 512 records. Once a quarter of
+ * the records are tombstones, the live ones are copied into new buffers and the old buffers
+ * are left for the views still reading them. Direct buffers are released once unreachable,
+ * so their memory returns when the last view of them is collected.
+ *
+ * Not thread-safe; the views are.
+ */
+final class OffHeapTaskColumns extends AbstractList<Task> implements TaskStore, RandomAccess {
+    private static final int RECORD_BYTES = 32;
+    private static final int TYPE = 0;
+    private static final int DESCRIPTION_OFFSET = 4;
+    private static final int START = 8;
+    private static final int END = 16;
+    private static final int DESCRIPTION_LENGTH = 24;
+
+    private static final int BLOCK_BITS = 9;
+    private static final int INITIAL_CAPACITY = 1 << BLOCK_BITS;
+    private static final int INITIAL_DESCRIPTION_BYTES = 1 << 14;
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+
+    private ByteBuffer records;
+    private ByteBuffer descriptions;
+    private int descriptionBytes;
+    private int rowCount;
+    private int tombstoneCount;
+    private int[] doneBits;
+    private int[] tombstoneBits;
+    /** The number of tombstones in the blocks before each block. */
+    private int[] tombstonesBefore;
+
+    /** Whether the current done bits are shared with a view. */
+    private boolean isDoneShared;
+    /** Whether the current tombstone bits and counts are shared with a view. */
+    private boolean areTombstonesShared;
+
+    OffHeapTaskColumns() {
+        records = allocate((long) INITIAL_CAPACITY * RECORD_BYTES);
+        descriptions = allocate(INITIAL_DESCRIPTION_BYTES);
+        doneBits = new int[wordsFor(INITIAL_CAPACITY)];
+        tombstoneBits = new int[wordsFor(INITIAL_CAPACITY)];
+        tombstonesBefore = new int[blocksFor(INITIAL_CAPACITY)];
+    }
+
+    @Override
+    public int size() {
+        return rowCount - tombstoneCount;
+    }
+
+    @Override
+    public Task get(int index) {
+        Objects.checkIndex(index, size());
+        int row = rowOf(index, rowCount, tombstoneCount, tombstoneBits, tombstonesBefore);
+        return decode(records, descriptions, row, isSet(doneBits, row));
+    }
+
+    /**
+     * Adds a task at the given index, which must be the end of the list.
+     *
+     * @throws UnsupportedOperationException if the index is not the end
+     */
+    @Override
+    public void add(int index, Task task) {
+        if (index != size()) {
+            throw new UnsupportedOperationException("Tasks can only be added at the end of the columns");
+        }
+        if (rowCount == records.capacity() / RECORD_BYTES) {
+            grow(rowCount + (rowCount >> 1));
+        }
+
+        int row = rowCount;
+        if ((row & ((1 << BLOCK_BITS) - 1)) == 0) {
+            // The count for a new block lies past every view, like the record itself.
+            tombstonesBefore[row >>> BLOCK_BITS] = tombstoneCount;
+        }
+        // Appending may set a done bit in a word a view also reads. Ints are written whole,
+        // so the view sees either value of the word, and both agree on the view's own rows.
+        writeBit(doneBits, row, task.isDone());
+        writeRecord(row, task);
+        rowCount++;
+        modCount++;
+    }
+
+    /**
+     * Replaces the task at the given index. Changing only the done status of a task copies
+     * the done bits at most once per view, while any other change rewrites the buffers.
+     */
+    @Override
+    public Task set(int index, Task task) {
+        Task previous = get(index);
+        int row = rowOf(index, rowCount, tombstoneCount, tombstoneBits, tombstonesBefore);
+        if (!hasSameDetails(row, task)) {
+            // Records are never changed in place, since a view may be reading them.
+            rebuild(liveRows());
+            row = index;
+            writeRecord(row, task);
+        }
+        if (isSet(doneBits, row) != task.isDone()) {
+            if (isDoneShared) {
+                doneBits = doneBits.clone();
+                isDoneShared = false;
+            }
+            writeBit(doneBits, row, task.isDone());
+        }
+        return previous;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        removeRange(index, index + 1);
+        return removed;
+    }
+
+    /**
+     * Removes the tasks in the given range by setting their tombstones, compacting the
+     * buffers if too many records are now tombstones.
+     */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return;
+        }
+        BitSet selected = new BitSet(toIndex);
+        selected.set(fromIndex, toIndex);
+        removeSelected(selected);
+    }
+
+    @Override
+    public void removeSelected(BitSet selected) {
+        int first = selected.nextSetBit(0);
+        if (first < 0) {
+            return;
+        }
+        if (areTombstonesShared) {
+            tombstoneBits = tombstoneBits.clone();
+            tombstonesBefore = tombstonesBefore.clone();
+            areTombstonesShared = false;
+        }
+
+        int row = rowOf(first, rowCount, tombstoneCount, tombstoneBits, tombstonesBefore);
+        int removed = 0;
+        for (int index = first; row < rowCount && index < selected.length(); row++) {
+            if (isSet(tombstoneBits, row)) {
+                continue;
+            }
+            if (selected.get(index)) {
+                writeBit(tombstoneBits, row, true);
+                removed++;
+            }
+            index++;
+        }
+        tombstoneCount += removed;
+        countTombstones();
+        modCount++;
+
+        if ((tombstoneCount >= MIN_TOMBSTONES_TO_COMPACT && tombstoneCount > rowCount / 4)
+                || tombstoneCount == rowCount) {
+            rebuild(liveRows());
+        }
+    }
+
+    /**
+     * Sorts tasks chronologically, like {@link TodoList#sortByTime()}, and copies them into
+     * new buffers in that order. Ties keep their order, since each time is paired with its
+     * record number before sorting.
+     */
+    @Override
+    public void sortByTime() {
+        int[] rows = liveRows();
+        long[] times = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            int at = rows[i] * RECORD_BYTES;
+            times[i] = records.get(at + TYPE) == TaskColumns.TODO ? Long.MAX_VALUE : records.getLong(at + START);
+        }
+
+        // Rank each time among the distinct times, so that a rank and a record number fit in one long.
+        long[] distinct = times.clone();
+        Arrays.sort(distinct);
+        int distinctCount = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {
+                distinct[distinctCount++] = distinct[i];
+            }
+        }
+        long[] ranked = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            ranked[i] = (long) Arrays.binarySearch(distinct, 0, distinctCount, times[i]) << 32 | rows[i];
+        }
+        Arrays.sort(ranked);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = (int) ranked[i];
+        }
+        rebuild(rows);
+        modCount++;
+    }
+
+    @Override
+    public TaskSequence freeze() {
+        isDoneShared = true;
+        areTombstonesShared = true;
+        return new View(rowCount, tombstoneCount, records, descriptions, doneBits, tombstoneBits, tombstonesBefore);
+    }
+
+    private void grow(int capacity) {
+        int newCapacity = Math.max(INITIAL_CAPACITY, capacity);
+        records = copy(records, (long) newCapacity * RECORD_BYTES, rowCount * RECORD_BYTES);
+        doneBits = Arrays.copyOf(doneBits, wordsFor(newCapacity));
+        tombstoneBits = Arrays.copyOf(tombstoneBits, wordsFor(newCapacity));
+        tombstonesBefore = Arrays.copyOf(tombstonesBefore, blocksFor(newCapacity));
+        // Views keep the old bits, so the new ones are not shared yet.
+        isDoneShared = false;
+        areTombstonesShared = false;
+    }
+
+    /**
+     * Replaces the buffers and bits with new ones holding only the given records, in the
+     * given order.
+     */
+    private void rebuild(int[] rows) {
+        int capacity = Math.max(INITIAL_CAPACITY, rows.length + (rows.length >> 3));
+        long neededBytes = 0;
+        for (int row : rows) {
+            neededBytes += records.getInt(row * RECORD_BYTES + DESCRIPTION_LENGTH);
+        }
+        ByteBuffer newRecords = allocate((long) capacity * RECORD_BYTES);
+        ByteBuffer newDescriptions = allocate(Math.max(INITIAL_DESCRIPTION_BYTES, neededBytes));
+        int[] newDoneBits = new int[wordsFor(capacity)];
+
+        int newDescriptionBytes = 0;
+        for (int i = 0; i < rows.length; i++) {
+            int from = rows[i] * RECORD_BYTES;
+            int to = i * RECORD_BYTES;
+            int offset = records.getInt(from + DESCRIPTION_OFFSET);
+            int length = records.getInt(from + DESCRIPTION_LENGTH);
+            newRecords.put(to, records, from, RECORD_BYTES);
+            newRecords.putInt(to + DESCRIPTION_OFFSET, newDescriptionBytes);
+            newDescriptions.put(newDescriptionBytes, descriptions, offset, length);
+            newDescriptionBytes += length;
+            writeBit(newDoneBits, i, isSet(doneBits, rows[i]));
+        }
+
+        records = newRecords;
+        descriptions = newDescriptions;
+        descriptionBytes = newDescriptionBytes;
+        rowCount = rows.length;
+        tombstoneCount = 0;
+        doneBits = newDoneBits;
+        tombstoneBits = new int[wordsFor(capacity)];
+        tombstonesBefore = new int[blocksFor(capacity)];
+        isDoneShared = false;
+        areTombstonesShared = false;
+    }
+
+    /**
+     * Returns the record numbers of the tasks not deleted, in list order.
+     */
+    private int[] liveRows() {
+        int[] rows = new int[size()];
+        int count = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!isSet(tombstoneBits, row)) {
+                rows[count++] = row;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Recounts the tombstones before each block. Only called on bits not shared with a view.
+     */
+    private void countTombstones() {
+        int blocks = blocksFor(rowCount);
+        int wordsPerBlock = 1 << (BLOCK_BITS - 5);
+        int before = 0;
+        for (int block = 0; block < blocks; block++) {
+            tombstonesBefore[block] = before;
+            int word = block * wordsPerBlock;
+            for (int end = Math.min(word + wordsPerBlock, tombstoneBits.length); word < end; word++) {
+                before += Integer.bitCount(tombstoneBits[word]);
+            }
+        }
+    }
+
+    /**
+     * Writes a task's record at the given row, appending its description past anything a
+     * view can see.
+     */
+    private void writeRecord(int row, Task task) {
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        if ((long) descriptionBytes + description.length > descriptions.capacity()) {
+            long wanted = Math.max((long) descriptionBytes + description.length, 2L * descriptions.capacity());
+            descriptions = copy(descriptions, wanted, descriptionBytes);
+        }
+        descriptions.put(descriptionBytes, description);
+
+        int at = row * RECORD_BYTES;
+        records.put(at + TYPE, TaskColumns.typeOf(task));
+        records.putInt(at + DESCRIPTION_OFFSET, descriptionBytes);
+        records.putLong(at + START, TaskColumns.startOf(task));
+        records.putLong(at + END, TaskColumns.endOf(task));
+        records.putInt(at + DESCRIPTION_LENGTH, description.length);
+        descriptionBytes += description.length;
+    }
+
+    private boolean hasSameDetails(int row, Task task) {
+        int at = row * RECORD_BYTES;
+        if (records.get(at + TYPE) != TaskColumns.typeOf(task)
+                || records.getLong(at + START) != TaskColumns.startOf(task)
+                || records.getLong(at + END) != TaskColumns.endOf(task)) {
+            return false;
+        }
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        int length = records.getInt(at + DESCRIPTION_LENGTH);
+        return length == description.length && descriptions.slice(records.getInt(at + DESCRIPTION_OFFSET), length)
+                .equals(ByteBuffer.wrap(description));
+    }
+
+    /**
+     * Returns the record holding the task with the given number, skipping tombstones.
+     * Finds the block by binary search over the tombstone counts, then counts within it.
+     */
+    private static int rowOf(int index, int rowCount, int tombstoneCount, int[] tombstoneBits,
+            int[] tombstonesBefore) {
+        if (tombstoneCount == 0) {
+            return index;
+        }
+
+        int low = 0;
+        int high = (rowCount - 1) >>> BLOCK_BITS;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if ((middle << BLOCK_BITS) - tombstonesBefore[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        int remaining = index - ((low << BLOCK_BITS) - tombstonesBefore[low]);
+        for (int word = low << (BLOCK_BITS - 5); ; word++) {
+            int live = ~tombstoneBits[word];
+            int count = Integer.bitCount(live);
+            if (remaining < count) {
+                for (; remaining > 0; remaining--) {
+                    live &= live - 1;
+                }
+                return (word << 5) + Integer.numberOfTrailingZeros(live);
+            }
+            remaining -= count;
+        }
+    }
+
+    private static Task decode(ByteBuffer records, ByteBuffer descriptions, int row, boolean isDone) {
+        int at = row * RECORD_BYTES;
+        byte[] description = new byte[records.getInt(at + DESCRIPTION_LENGTH)];
+        descriptions.get(records.getInt(at + DESCRIPTION_OFFSET), description);
+        return TaskColumns.decode(records.get(at + TYPE), isDone, new String(description, StandardCharsets.UTF_8),
+                records.getLong(at + START), records.getLong(at + END));
+    }
+
+    private static ByteBuffer allocate(long capacity) {
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The ledger has outgrown its off-heap storage");
+        }
+        return ByteBuffer.allocateDirect((int) capacity).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Returns a new buffer of the given capacity, capped at the largest a buffer can be,
+     * holding the first bytes of the given one.
+     */
+    private static ByteBuffer copy(ByteBuffer buffer, long capacity, int usedBytes) {
+        ByteBuffer copy = allocate(Math.max(usedBytes + 1L, Math.min(capacity, Integer.MAX_VALUE - 8)));
+        copy.put(0, buffer, 0, usedBytes);
+        return copy;
+    }
+
+    private static boolean isSet(int[] bits, int index) {
+        return (bits[index >>> 5] & (1 << index)) != 0;
+    }
+
+    private static void writeBit(int[] bits, int index, boolean isSet) {
+        if (isSet) {
+            bits[index >>> 5] |= 1 << index;
+        } else {
+            bits[index >>> 5] &= ~(1 << index);
+        }
+    }
+
+    private static int wordsFor(int capacity) {
+        return (capacity + 31) >>> 5;
+    }
+
+    private static int blocksFor(int capacity) {
+        return (capacity + (1 << BLOCK_BITS) - 1) >>> BLOCK_BITS;
+    }
+
+    /**
+     * The tasks held when the view was taken. Reads only records below its row count and the
+     * bits it was given, none of which change once a view can see them.
+     */
+    private static final class View implements TaskSequence {
+        private final int rowCount;
+        private final int tombstoneCount;
+        private final ByteBuffer records;
+        private final ByteBuffer descriptions;
+        private final int[] doneBits;
+        private final int[] tombstoneBits;
+        private final int[] tombstonesBefore;
+
+        private View(int rowCount, int tombstoneCount, ByteBuffer records, ByteBuffer descriptions,
+                int[] doneBits, int[] tombstoneBits, int[] tombstonesBefore) {
+            this.rowCount = rowCount;
+            this.tombstoneCount = tombstoneCount;
+            this.records = records;
+            this.descriptions = descriptions;
+            this.doneBits = doneBits;
+            this.tombstoneBits = tombstoneBits;
+            this.tombstonesBefore = tombstonesBefore;
+        }
+
+        @Override
+        public int size() {
+            return rowCount - tombstoneCount;
+        }
+
+        @Override
+        public Task get(int index) {
+            Objects.checkIndex(index, size());
+            int row = rowOf(index, rowCount, tombstoneCount, tombstoneBits, tombstonesBefore);
+            return decode(records, descriptions, row, isSet(doneBits, row));
+        }
+    }
+}
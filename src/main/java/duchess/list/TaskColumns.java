@@ -0,0 +1,398 @@
+package duchess.list;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import duchess.task.DeadlineTask;
+import duchess.task.EventTask;
+import duchess.task.Task;
+import duchess.task.TodoTask;
+
+/**
+ * Holds tasks as columns of primitives rather than as objects, for ledgers of millions of tasks.
+ *
+ * Each task takes a type byte, a done bit, two longs of epoch seconds for its deadline or its
+ * start and end, and the UTF-8 bytes of its description in a shared arena: about 25 bytes
+ * plus the description, against well over 100 as objects. There are no task objects to keep,
+ * so {@link #get(int)} builds a new task from the columns on every call.
+ *
+ * The columns are shared with the views returned by {@link #freeze()}. Adding a task writes
+ * past the end of every view, so it is done in place. Any other change to a row that a view
+ * can see copies the columns first, so views never change. Times are kept to the second,
+ * as in the binary snapshot, which is finer than any time a task is given.
+ *
+ * Not thread-safe; the views are.
+ */
+final class TaskColumns extends AbstractList<Task> implements TaskStore, RandomAccess {
+    static final byte TODO = 0;
+    static final byte DEADLINE = 1;
+    static final byte EVENT = 2;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INITIAL_ARENA = 256;
+
+    private int size;
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] doneBits = new int[wordsFor(INITIAL_CAPACITY)];
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private int[] descriptionOffsets = new int[INITIAL_CAPACITY];
+    private int[] descriptionLengths = new int[INITIAL_CAPACITY];
+    private byte[] arena = new byte[INITIAL_ARENA];
+    private int arenaLength;
+
+    /** Rows below this index can be seen by a view sharing the current columns. */
+    private int frozenSize;
+    /** Whether the current done bits are shared with a view. */
+    private boolean isDoneShared;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        Objects.checkIndex(index, size);
+        return decode(types[index], isDone(doneBits, index),
+                new String(arena, descriptionOffsets[index], descriptionLengths[index], StandardCharsets.UTF_8),
+                starts[index], ends[index]);
+    }
+
+    /**
+     * Adds a task at the given index, which must be the end of the columns.
+     *
+     * @throws UnsupportedOperationException if the index is not the end
+     */
+    @Override
+    public void add(int index, Task task) {
+        if (index != size) {
+            throw new UnsupportedOperationException("Tasks can only be added at the end of the columns");
+        }
+        if (size == types.length) {
+            grow(size + (size >> 1));
+        }
+        // Appending may set a done bit in a word a view also reads. Ints are written whole,
+        // so the view sees either value of the word, and both agree on the view's own rows.
+        writeDone(size, task.isDone());
+        writeDetails(size, task);
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Replaces the task at the given index. Changing only the done status of a task copies
+     * the done bits at most once per view, while any other change copies every column.
+     */
+    @Override
+    public Task set(int index, Task task) {
+        Task previous = get(index);
+        if (!hasSameDetails(index, task)) {
+            if (index < frozenSize) {
+                rebuild(identity(size));
+            }
+            writeDetails(index, task);
+        }
+        if (isDone(doneBits, index) != task.isDone()) {
+            if (isDoneShared && index < frozenSize) {
+                doneBits = doneBits.clone();
+                isDoneShared = false;
+            }
+            writeDone(index, task.isDone());
+        }
+        return previous;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        removeRange(index, index + 1);
+        return removed;
+    }
+
+    /**
+     * Removes the tasks in the given range. Rows a view can see are never moved in place,
+     * so removing them copies the remaining rows into new columns, compacting the arena.
+     */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        int removed = toIndex - fromIndex;
+        if (removed <= 0) {
+            return;
+        }
+
+        if (fromIndex < frozenSize) {
+            int[] rows = new int[size - removed];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = i < fromIndex ? i : i + removed;
+            }
+            rebuild(rows);
+        } else {
+            int moved = size - toIndex;
+            System.arraycopy(types, toIndex, types, fromIndex, moved);
+            System.arraycopy(starts, toIndex, starts, fromIndex, moved);
+            System.arraycopy(ends, toIndex, ends, fromIndex, moved);
+            System.arraycopy(descriptionOffsets, toIndex, descriptionOffsets, fromIndex, moved);
+            System.arraycopy(descriptionLengths, toIndex, descriptionLengths, fromIndex, moved);
+            for (int i = toIndex; i < size; i++) {
+                writeDone(i - removed, isDone(doneBits, i));
+            }
+            size -= removed;
+        }
+        modCount++;
+    }
+
+    /**
+     * Removes every task whose index is set in the given selection, copying the remaining
+     * rows into new columns in a single pass.
+     *
+     * @param selected the zero-based indexes of the tasks to remove
+     */
+    @Override
+    public void removeSelected(BitSet selected) {
+        int[] rows = new int[size - selected.cardinality()];
+        int kept = 0;
+        for (int i = selected.nextClearBit(0); i < size; i = selected.nextClearBit(i + 1)) {
+            rows[kept++] = i;
+        }
+        rebuild(rows);
+        modCount++;
+    }
+
+    /**
+     * Sorts tasks chronologically by the time held in the columns, like
+     * {@link TodoList#sortByTime()}: deadlines by their date, events by their start, and
+     * todos at the end. The sort is stable, and rewrites the columns in the new order.
+     */
+    @Override
+    public void sortByTime() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(row -> types[row] == TODO ? Long.MAX_VALUE : starts[row]));
+
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = order[i];
+        }
+        rebuild(rows);
+        modCount++;
+    }
+
+    /**
+     * Returns a view of the tasks as they are now, which later changes to the columns
+     * leave untouched. Taking a view copies nothing.
+     *
+     * @return the view
+     */
+    @Override
+    public TaskSequence freeze() {
+        frozenSize = size;
+        isDoneShared = true;
+        return new View(size, types, doneBits, starts, ends, descriptionOffsets, descriptionLengths, arena);
+    }
+
+    private void grow(int capacity) {
+        int newCapacity = Math.max(INITIAL_CAPACITY, capacity);
+        types = Arrays.copyOf(types, newCapacity);
+        doneBits = Arrays.copyOf(doneBits, wordsFor(newCapacity));
+        starts = Arrays.copyOf(starts, newCapacity);
+        ends = Arrays.copyOf(ends, newCapacity);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, newCapacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, newCapacity);
+        // Views keep the old columns, so the new ones are not shared yet.
+        frozenSize = 0;
+        isDoneShared = false;
+    }
+
+    /**
+     * Replaces every column with new ones holding the given rows, in the given order.
+     */
+    private void rebuild(int[] rows) {
+        int capacity = rows.length + INITIAL_CAPACITY;
+        byte[] newTypes = new byte[capacity];
+        int[] newDoneBits = new int[wordsFor(capacity)];
+        long[] newStarts = new long[capacity];
+        long[] newEnds = new long[capacity];
+        int[] newOffsets = new int[capacity];
+        int[] newLengths = new int[capacity];
+
+        int arenaNeeded = 0;
+        for (int row : rows) {
+            arenaNeeded += descriptionLengths[row];
+        }
+        byte[] newArena = new byte[Math.max(INITIAL_ARENA, arenaNeeded)];
+        int newArenaLength = 0;
+
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            newTypes[i] = types[row];
+            newStarts[i] = starts[row];
+            newEnds[i] = ends[row];
+            if (isDone(doneBits, row)) {
+                newDoneBits[i >>> 5] |= 1 << i;
+            }
+            System.arraycopy(arena, descriptionOffsets[row], newArena, newArenaLength, descriptionLengths[row]);
+            newOffsets[i] = newArenaLength;
+            newLengths[i] = descriptionLengths[row];
+            newArenaLength += descriptionLengths[row];
+        }
+
+        types = newTypes;
+        doneBits = newDoneBits;
+        starts = newStarts;
+        ends = newEnds;
+        descriptionOffsets = newOffsets;
+        descriptionLengths = newLengths;
+        arena = newArena;
+        arenaLength = newArenaLength;
+        size = rows.length;
+        frozenSize = 0;
+        isDoneShared = false;
+    }
+
+    /**
+     * Writes everything about a task but its done status into the given row.
+     * Its description is appended to the arena, past anything a view can see.
+     */
+    private void writeDetails(int index, Task task) {
+        types[index] = typeOf(task);
+        starts[index] = startOf(task);
+        ends[index] = endOf(task);
+
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        if (arenaLength + description.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arenaLength + description.length, arena.length * 2));
+        }
+        System.arraycopy(description, 0, arena, arenaLength, description.length);
+        descriptionOffsets[index] = arenaLength;
+        descriptionLengths[index] = description.length;
+        arenaLength += description.length;
+    }
+
+    private void writeDone(int index, boolean isDone) {
+        if (isDone) {
+            doneBits[index >>> 5] |= 1 << index;
+        } else {
+            doneBits[index >>> 5] &= ~(1 << index);
+        }
+    }
+
+    private boolean hasSameDetails(int index, Task task) {
+        if (types[index] != typeOf(task) || starts[index] != startOf(task) || ends[index] != endOf(task)) {
+            return false;
+        }
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        int offset = descriptionOffsets[index];
+        return Arrays.equals(arena, offset, offset + descriptionLengths[index], description, 0, description.length);
+    }
+
+    static byte typeOf(Task task) {
+        if (task instanceof DeadlineTask) {
+            return DEADLINE;
+        } else if (task instanceof EventTask) {
+            return EVENT;
+        } else {
+            return TODO;
+        }
+    }
+
+    /**
+     * Returns the deadline of a task at the start of its day, or the start of an event,
+     * in epoch seconds. Both sort the same way as {@link TodoList#sortByTime()}.
+     */
+    static long startOf(Task task) {
+        if (task instanceof DeadlineTask) {
+            return ((DeadlineTask) task).getDeadline().atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        } else if (task instanceof EventTask) {
+            return ((EventTask) task).getStart().toEpochSecond(ZoneOffset.UTC);
+        } else {
+            return 0;
+        }
+    }
+
+    static long endOf(Task task) {
+        return task instanceof EventTask ? ((EventTask) task).getEnd().toEpochSecond(ZoneOffset.UTC) : 0;
+    }
+
+    /**
+     * Builds a task from the values held in its columns.
+     */
+    static Task decode(byte type, boolean isDone, String description, long start, long end) {
+        switch (type) {
+        case DEADLINE:
+            return new DeadlineTask(description, toDateTime(start).toLocalDate(), isDone);
+        case EVENT:
+            return new EventTask(description, toDateTime(start), toDateTime(end), isDone);
+        default:
+            return new TodoTask(description, isDone);
+        }
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private static boolean isDone(int[] doneBits, int index) {
+        return (doneBits[index >>> 5] & (1 << index)) != 0;
+    }
+
+    private static int wordsFor(int capacity) {
+        return (capacity + 31) >>> 5;
+    }
+
+    private static int[] identity(int count) {
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+
+    /**
+     * The tasks held by the columns when the view was taken. Reads only the rows below its
+     * size, which the columns never change once a view can see them.
+     */
+    private static final class View implements TaskSequence {
+        private final int size;
+        private final byte[] types;
+        private final int[] doneBits;
+        private final long[] starts;
+        private final long[] ends;
+        private final int[] descriptionOffsets;
+        private final int[] descriptionLengths;
+        private final byte[] arena;
+
+        private View(int size, byte[] types, int[] doneBits, long[] starts, long[] ends,
+                int[] descriptionOffsets, int[] descriptionLengths, byte[] arena) {
+            this.size = size;
+            this.types = types;
+            this.doneBits = doneBits;
+            this.starts = starts;
+            this.ends = ends;
+            this.descriptionOffsets = descriptionOffsets;
+            this.descriptionLengths = descriptionLengths;
+            this.arena = arena;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Task get(int index) {
+            Objects.checkIndex(index, size);
+            return decode(types[index], isDone(doneBits, index),
+                    new String(arena, descriptionOffsets[index], descriptionLengths[index], StandardCharsets.UTF_8),
+                    starts[index], ends[index]);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package duchess.list;
+
+import duchess.task.Task;
+
+/**
+ * A fixed sequence of tasks that can be read from any thread, as held by a published snapshot.
+ */
+interface TaskSequence {
+    int size();
+
+    /**
+     * Returns the task at the given index.
+     *
+     * @param index the zero-based index of the task
+     * @return the task at that index
+     */
+    Task get(int index);
+}
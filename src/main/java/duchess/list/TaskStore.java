@@ -0,0 +1,31 @@
+package duchess.list;
+
+import java.util.BitSet;
+import java.util.List;
+
+import duchess.task.Task;
+
+/**
+ * The working list of tasks behind a todolist. It is published by freezing it rather than by
+ * copying it, so publishing after a change costs nothing however long the list.
+ */
+interface TaskStore extends List<Task> {
+    /**
+     * Returns a view of the tasks as they are now, which later changes leave untouched.
+     *
+     * @return the view
+     */
+    TaskSequence freeze();
+
+    /**
+     * Sorts tasks chronologically, like {@link TodoList#sortByTime()}.
+     */
+    void sortByTime();
+
+    /**
+     * Removes every task whose index is set in the given selection.
+     *
+     * @param selected the zero-based indexes of the tasks to remove
+     */
+    void removeSelected(BitSet selected);
+}
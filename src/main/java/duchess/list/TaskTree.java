@@ -0,0 +1,218 @@
+package duchess.list;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import duchess.task.Task;
+
+/**
+ * Immutable list of tasks that shares structure between versions.
+ *
+ * Tasks are held in list order in an AVL tree where each node knows the size of its subtree,
+ * so the task at any position is found by descending from the root. Reading, replacing,
+ * inserting or removing the task at a position copies only the nodes on the path to it, so
+ * each change yields a new tree in O(log n) while every earlier tree stays valid and unchanged.
+ * This lets readers keep using an old version while the list moves on without them.
+ */
+final class TaskTree implements TaskSequence {
+    static final TaskTree EMPTY = new TaskTree(null);
+
+    private final Node root;
+
+    private TaskTree(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Builds a perfectly balanced tree holding the given tasks, in order, in O(n).
+     *
+     * @param tasks the tasks to hold
+     * @return the new tree
+     */
+    static TaskTree of(List<Task> tasks) {
+        return tasks.isEmpty() ? EMPTY : new TaskTree(build(tasks, 0, tasks.size()));
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index, size());
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.task;
+            }
+        }
+    }
+
+    /**
+     * Returns a tree with the given task added at the end.
+     */
+    TaskTree append(Task task) {
+        return insert(size(), task);
+    }
+
+    /**
+     * Returns a tree with the given task inserted at the given index, moving every later
+     * task one place along.
+     */
+    TaskTree insert(int index, Task task) {
+        checkIndex(index, size() + 1);
+        return new TaskTree(insert(root, index, task));
+    }
+
+    /**
+     * Returns a tree with the task at the given index replaced.
+     */
+    TaskTree set(int index, Task task) {
+        checkIndex(index, size());
+        return new TaskTree(set(root, index, task));
+    }
+
+    /**
+     * Returns a tree without the task at the given index, moving every later task one
+     * place back.
+     */
+    TaskTree remove(int index) {
+        checkIndex(index, size());
+        return new TaskTree(remove(root, index));
+    }
+
+    /**
+     * Returns every task, in list order, in O(n).
+     */
+    List<Task> toList() {
+        List<Task> tasks = new ArrayList<>(size());
+        addAll(root, tasks);
+        return tasks;
+    }
+
+    private static Node insert(Node node, int index, Task task) {
+        if (node == null) {
+            return new Node(null, task, null);
+        }
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            return balance(insert(node.left, index, task), node.task, node.right);
+        }
+        return balance(node.left, node.task, insert(node.right, index - leftSize - 1, task));
+    }
+
+    private static Node set(Node node, int index, Task task) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return new Node(set(node.left, index, task), node.task, node.right);
+        } else if (index > leftSize) {
+            return new Node(node.left, node.task, set(node.right, index - leftSize - 1, task));
+        }
+        return new Node(node.left, task, node.right);
+    }
+
+    private static Node remove(Node node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return balance(remove(node.left, index), node.task, node.right);
+        } else if (index > leftSize) {
+            return balance(node.left, node.task, remove(node.right, index - leftSize - 1));
+        }
+
+        if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        }
+        // The first task of the right subtree takes the place of the removed one.
+        return balance(node.left, first(node.right), remove(node.right, 0));
+    }
+
+    private static Task first(Node node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node.task;
+    }
+
+    /**
+     * Joins two subtrees whose heights differ by at most two under a task, rotating once or
+     * twice if needed so that their heights differ by at most one.
+     */
+    private static Node balance(Node left, Task task, Node right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (leftHeight > rightHeight + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node(left.left, left.task, new Node(left.right, task, right));
+            }
+            Node middle = left.right;
+            return new Node(new Node(left.left, left.task, middle.left), middle.task,
+                    new Node(middle.right, task, right));
+        } else if (rightHeight > leftHeight + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node(new Node(left, task, right.left), right.task, right.right);
+            }
+            Node middle = right.left;
+            return new Node(new Node(left, task, middle.left), middle.task,
+                    new Node(middle.right, right.task, right.right));
+        }
+        return new Node(left, task, right);
+    }
+
+    /**
+     * Builds the subtree over tasks[from, to).
+     */
+    private static Node build(List<Task> tasks, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Node(build(tasks, from, middle), tasks.get(middle), build(tasks, middle + 1, to));
+    }
+
+    private static void addAll(Node node, List<Task> tasks) {
+        if (node != null) {
+            addAll(node.left, tasks);
+            tasks.add(node.task);
+            addAll(node.right, tasks);
+        }
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void checkIndex(int index, int length) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+    }
+
+    private static final class Node {
+        private final Node left;
+        private final Task task;
+        private final Node right;
+        private final int size;
+        private final int height;
+
+        Node(Node left, Task task, Node right) {
+            this.left = left;
+            this.task = task;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+}
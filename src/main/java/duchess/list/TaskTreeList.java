@@ -0,0 +1,100 @@
+package duchess.list;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+import duchess.task.Task;
+
+/**
+ * Holds tasks as objects in a {@link TaskTree}, so that reading, replacing, inserting or
+ * removing the task at any position takes O(log n), and freezing the list hands out the
+ * tree itself.
+ *
+ * Not thread-safe; the frozen trees are.
+ */
+final class TaskTreeList extends AbstractList<Task> implements TaskStore {
+    private TaskTree tree = TaskTree.EMPTY;
+
+    @Override
+    public int size() {
+        return tree.size();
+    }
+
+    @Override
+    public Task get(int index) {
+        return tree.get(index);
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task previous = tree.get(index);
+        tree = tree.set(index, task);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        tree = tree.insert(index, task);
+        modCount++;
+    }
+
+    /**
+     * Adds every given task at the end, building a balanced tree in one go if the list is empty.
+     */
+    @Override
+    public boolean addAll(Collection<? extends Task> tasks) {
+        if (!isEmpty()) {
+            return super.addAll(tasks);
+        }
+        tree = TaskTree.of(new ArrayList<>(tasks));
+        modCount++;
+        return !tasks.isEmpty();
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = tree.get(index);
+        tree = tree.remove(index);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        tree = TaskTree.EMPTY;
+        modCount++;
+    }
+
+    @Override
+    public TaskSequence freeze() {
+        return tree;
+    }
+
+    /**
+     * Sorts tasks chronologically with a stable sort, then rebuilds the tree in that order.
+     */
+    @Override
+    public void sortByTime() {
+        List<Task> tasks = tree.toList();
+        tasks.sort(TodoList.BY_TIME);
+        tree = TaskTree.of(tasks);
+        modCount++;
+    }
+
+    /**
+     * Removes the selected tasks and rebuilds the tree from the rest in one pass.
+     */
+    @Override
+    public void removeSelected(BitSet selected) {
+        List<Task> tasks = tree.toList();
+        List<Task> kept = new ArrayList<>(tasks.size() - selected.cardinality());
+        for (int i = selected.nextClearBit(0); i < tasks.size(); i = selected.nextClearBit(i + 1)) {
+            kept.add(tasks.get(i));
+        }
+        tree = TaskTree.of(kept);
+        modCount++;
+    }
+}
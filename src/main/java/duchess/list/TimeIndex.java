@@ -0,0 +1,264 @@
+package duchess.list;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import duchess.task.DeadlineTask;
+import duchess.task.EventTask;
+import duchess.task.Task;
+
+/**
+ * Keeps deadlines and events ordered by time so that sorting and date range queries
+ * do not have to look at the whole list.
+ *
+ * Deadlines are keyed by the start of their day and events by their start time, both in
+ * UTC epoch seconds. Keys with the same time are told apart by an insertion sequence, and
+ * tasks due at the same time are handed out in list order, as given by a {@link ListOrder},
+ * which reproduces the stable ordering of a full sort. Ties only need sorting when a task
+ * was inserted before others or the list reordered, so the index is never rebuilt for that.
+ *
+ * Deadlines and events that are not done are also kept together by time, so that the ones
+ * falling due are found without looking at the rest, and those not yet reminded of are kept
+ * apart again as a queue that reminders are taken from in time order.
+ */
+class TimeIndex {
+    private final ListOrder order;
+    private final TreeMap<TimeKey, Task> deadlines = new TreeMap<>();
+    private final TreeMap<TimeKey, Task> events = new TreeMap<>();
+    private final TreeMap<TimeKey, Task> unfinished = new TreeMap<>();
+    private final TreeMap<TimeKey, Task> unreminded = new TreeMap<>();
+    private final Map<Task, TimeKey> keys = new IdentityHashMap<>();
+    private long nextSequence;
+
+    /**
+     * Creates an empty index whose ties follow the given order.
+     *
+     * @param order the order of the tasks in the list
+     */
+    TimeIndex(ListOrder order) {
+        this.order = order;
+    }
+
+    /**
+     * Indexes a task that was added to the list.
+     * Tasks without a time are ignored.
+     *
+     * @param task the added task
+     */
+    void add(Task task) {
+        TimeKey key;
+        if (task instanceof DeadlineTask) {
+            key = new TimeKey(toEpochSecond(((DeadlineTask) task).getDeadline()), nextSequence++);
+            deadlines.put(key, task);
+        } else if (task instanceof EventTask) {
+            key = new TimeKey(toEpochSecond(((EventTask) task).getStart()), nextSequence++);
+            events.put(key, task);
+        } else {
+            return;
+        }
+        keys.put(task, key);
+        if (!task.isDone()) {
+            unfinished.put(key, task);
+            unreminded.put(key, task);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task the removed task
+     */
+    void remove(Task task) {
+        TimeKey key = keys.remove(task);
+        if (key != null) {
+            (task instanceof DeadlineTask ? deadlines : events).remove(key);
+            unfinished.remove(key);
+            unreminded.remove(key);
+        }
+    }
+
+    /**
+     * Puts a copy of a task, with the same time, in the place of the task.
+     *
+     * @param task the indexed task
+     * @param replacement the task taking its place
+     */
+    void replace(Task task, Task replacement) {
+        TimeKey key = keys.remove(task);
+        if (key == null) {
+            return;
+        }
+        (task instanceof DeadlineTask ? deadlines : events).put(key, replacement);
+        keys.put(replacement, key);
+
+        if (replacement.isDone()) {
+            unfinished.remove(key);
+            unreminded.remove(key);
+        } else if (task.isDone()) {
+            // Unmarking a task makes it worth reminding of again.
+            unfinished.put(key, replacement);
+            unreminded.put(key, replacement);
+        } else {
+            unfinished.put(key, replacement);
+            unreminded.replace(key, replacement);
+        }
+    }
+
+    /**
+     * Returns the tasks of a list in chronological order: deadlines and events by time,
+     * followed by every other task in its current order.
+     *
+     * @param tasks every task in the list, in list order
+     * @return the tasks in sorted order
+     */
+    List<Task> sort(List<Task> tasks) {
+        List<Map.Entry<TimeKey, Task>> timed = new ArrayList<>(keys.size());
+        Iterator<Map.Entry<TimeKey, Task>> deadlineIterator = deadlines.entrySet().iterator();
+        Iterator<Map.Entry<TimeKey, Task>> eventIterator = events.entrySet().iterator();
+        Map.Entry<TimeKey, Task> deadline = next(deadlineIterator);
+        Map.Entry<TimeKey, Task> event = next(eventIterator);
+
+        while (deadline != null || event != null) {
+            if (event == null || (deadline != null && deadline.getKey().compareTo(event.getKey()) < 0)) {
+                timed.add(deadline);
+                deadline = next(deadlineIterator);
+            } else {
+                timed.add(event);
+                event = next(eventIterator);
+            }
+        }
+
+        List<Task> sorted = inListOrder(timed);
+        for (Task task : tasks) {
+            if (!keys.containsKey(task)) {
+                sorted.add(task);
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Returns the deadlines due on or before the given date, earliest first.
+     *
+     * @param date the last due date to include
+     * @return the matching deadlines
+     */
+    List<Task> deadlinesDueBy(LocalDate date) {
+        TimeKey bound = new TimeKey(toEpochSecond(date), Long.MAX_VALUE);
+        return inListOrder(deadlines.headMap(bound, true).entrySet());
+    }
+
+    /**
+     * Returns the events starting between the given times inclusive, earliest first.
+     *
+     * @param from the earliest start time to include
+     * @param to the latest start time to include
+     * @return the matching events
+     */
+    List<Task> eventsStartingBetween(LocalDateTime from, LocalDateTime to) {
+        TimeKey lower = new TimeKey(toEpochSecond(from), Long.MIN_VALUE);
+        TimeKey upper = new TimeKey(toEpochSecond(to), Long.MAX_VALUE);
+        return inListOrder(events.subMap(lower, true, upper, true).entrySet());
+    }
+
+    /**
+     * Returns the deadlines and events that are not done and fall due by the given time,
+     * earliest first. Deadlines fall due at the start of their day and events when they start.
+     *
+     * @param time the latest time to include
+     * @return the matching tasks, including those already overdue
+     */
+    List<Task> unfinishedDueBy(LocalDateTime time) {
+        TimeKey bound = new TimeKey(toEpochSecond(time), Long.MAX_VALUE);
+        return inListOrder(unfinished.headMap(bound, true).entrySet());
+    }
+
+    /**
+     * Takes the deadlines and events that are not done and fall due by the given time from
+     * the reminder queue, earliest first, so that each is only handed out once. A task goes
+     * back in the queue if it is unmarked. Takes O(log n) for each task handed out, however
+     * many tasks are indexed.
+     *
+     * @param time the latest time to include
+     * @return the tasks to remind of
+     */
+    List<Task> pollReminders(LocalDateTime time) {
+        long bound = toEpochSecond(time);
+        List<Map.Entry<TimeKey, Task>> due = new ArrayList<>();
+        Map.Entry<TimeKey, Task> first = unreminded.firstEntry();
+        while (first != null && first.getKey().epochSecond <= bound) {
+            due.add(first);
+            unreminded.pollFirstEntry();
+            first = unreminded.firstEntry();
+        }
+        return inListOrder(due);
+    }
+
+    /**
+     * Returns the tasks of the given entries, which are in time order, with the tasks due
+     * at the same time put in list order.
+     */
+    private List<Task> inListOrder(Collection<Map.Entry<TimeKey, Task>> entries) {
+        List<Task> tasks = new ArrayList<>(entries.size());
+        long time = 0;
+        int tieStart = 0;
+        for (Map.Entry<TimeKey, Task> entry : entries) {
+            if (tasks.isEmpty() || entry.getKey().epochSecond != time) {
+                sortTies(tasks, tieStart);
+                tieStart = tasks.size();
+                time = entry.getKey().epochSecond;
+            }
+            tasks.add(entry.getValue());
+        }
+        sortTies(tasks, tieStart);
+        return tasks;
+    }
+
+    /**
+     * Puts the tasks from the given index on in list order.
+     */
+    private void sortTies(List<Task> tasks, int from) {
+        if (tasks.size() - from > 1) {
+            order.sort(tasks.subList(from, tasks.size()));
+        }
+    }
+
+    private static Map.Entry<TimeKey, Task> next(Iterator<Map.Entry<TimeKey, Task>> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private static long toEpochSecond(LocalDate date) {
+        return date.toEpochDay() * 86_400L;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Orders tasks by time, then by insertion sequence, so that no two keys are equal.
+     */
+    private static final class TimeKey implements Comparable<TimeKey> {
+        private final long epochSecond;
+        private final long sequence;
+
+        TimeKey(long epochSecond, long sequence) {
+            this.epochSecond = epochSecond;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(TimeKey other) {
+            int byTime = Long.compare(epochSecond, other.epochSecond);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
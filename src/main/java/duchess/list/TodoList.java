@@ -1,20 +1,137 @@
 package duchess.list;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import duchess.metrics.Metrics;
 import duchess.task.DeadlineTask;
 import duchess.task.EventTask;
 import duchess.task.Task;
 
 /**
- * Stores a list of tasks for the user to complete in an ArrayList.
+ * Stores a list of tasks for the user to complete in a {@link TaskTreeList}, so that finding,
+ * inserting and deleting the task with a given number all take O(log n).
+ * Task descriptions are indexed by a {@link KeywordIndex} to answer find queries,
+ * and deadlines and events by a {@link TimeIndex} to sort and answer date range queries.
+ * The numbered listing is rendered by each snapshot on first use and kept with it.
+ *
+ * The list is safe to share between threads. Changes are made by one writer at a time, and each
+ * change publishes a new {@link Snapshot} held in a {@link TaskTree}. Reads are served from the
+ * latest snapshot without locking, so readers never wait for a writer. Queries that can use the
+ * indexes do so only while no change is in progress, and scan the snapshot otherwise. Tasks are
+ * replaced rather than changed when they are marked, so a snapshot never changes once published.
+ *
+ * A list made by {@link #columnar()} keeps its tasks in {@link TaskColumns} instead, for ledgers
+ * too large to hold as objects, and one made by {@link #offHeap()} keeps them outside the heap
+ * in {@link OffHeapTaskColumns}. Such lists have no indexes, since they would hold every task
+ * as an object, so their queries scan the latest snapshot. Tasks read
+ * from them are built on demand, and so are new objects on every read.
  */
 public class TodoList {
-    private final ArrayList<Task> tasks;
+    private static final String EMPTY_LISTING = "Your todo list is empty!";
+    /** Orders tasks by the time used for sorting; sorts are stable, so ties keep list order. */
+    static final Comparator<Task> BY_TIME = Comparator.comparing(TodoList::getTaskTime);
+
+    private final TaskStore tasks;
+    private final boolean isColumnar;
+    private final ListOrder order;
+    private final KeywordIndex keywordIndex;
+    private final TimeIndex timeIndex;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Snapshot snapshot = new Snapshot(0, TaskTree.EMPTY);
 
     public TodoList() {
-        this.tasks = new ArrayList<>();
+        this(new TaskTreeList(), true);
+    }
+
+    /**
+     * Creates an empty todolist over the given backing list, optionally without the keyword
+     * and time indexes. Lists that are only built to be displayed, such as search results,
+     * skip the indexes.
+     */
+    private TodoList(TaskStore tasks, boolean isIndexed) {
+        this.tasks = tasks;
+        this.isColumnar = !(tasks instanceof TaskTreeList);
+        this.order = isIndexed ? new ListOrder() : null;
+        this.keywordIndex = isIndexed ? new KeywordIndex(order) : null;
+        this.timeIndex = isIndexed ? new TimeIndex(order) : null;
+    }
+
+    /**
+     * Creates an empty todolist that keeps its tasks in primitive columns rather than as
+     * objects, which takes a fraction of the memory for large ledgers. Queries on it scan
+     * every task instead of using indexes.
+     *
+     * @return the empty columnar todolist
+     */
+    public static TodoList columnar() {
+        return new TodoList(new TaskColumns(), false);
+    }
+
+    /**
+     * Creates an empty todolist that keeps its tasks in direct buffers outside the Java heap,
+     * so that even ledgers of tens of millions of tasks add little work for the collector.
+     * Queries on it scan every task instead of using indexes.
+     *
+     * @return the empty off-heap todolist
+     */
+    public static TodoList offHeap() {
+        return new TodoList(new OffHeapTaskColumns(), false);
+    }
+
+    /**
+     * Creates an unindexed todolist holding the given tasks, such as the results of a query.
+     */
+    private static TodoList of(List<Task> tasks) {
+        TodoList list = new TodoList(new TaskTreeList(), false);
+        list.tasks.addAll(tasks);
+        list.publish();
+        return list;
+    }
+
+    /**
+     * Returns whether the list keeps its tasks in primitive columns.
+     *
+     * @return true if the list was made by {@link #columnar()} or {@link #offHeap()}
+     */
+    public boolean isColumnar() {
+        return isColumnar;
+    }
+
+    /**
+     * Returns the latest version of the list. The snapshot never changes, so several reads
+     * from it always agree with each other, however the list changes in the meantime.
+     *
+     * @return the latest snapshot
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Runs an action that reads and changes the list as one step, such as checking a task
+     * number and then deleting that task. Other writers wait until the action finishes, while
+     * readers carry on with the snapshot published before it.
+     *
+     * @param action the action to run
+     * @return the result of the action
+     * @throws E if the action fails
+     */
+    public <T, E extends Exception> T atomically(Action<T, E> action) throws E {
+        writeLock.lock();
+        try {
+            return action.run();
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -22,7 +139,43 @@ public class TodoList {
      * @param task the task to be added
      */
     public void addTask(Task task) {
-        this.tasks.add(task);
+        writeLock.lock();
+        try {
+            this.tasks.add(task);
+            if (keywordIndex != null) {
+                order.add(tasks, tasks.size() - 1);
+                keywordIndex.add(task);
+                timeIndex.add(task);
+            }
+            publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Inserts a task before the task with the given number, moving that task and every
+     * later one down by one.
+     *
+     * @param taskNumber the number the inserted task takes, up to the size of the list
+     * @param task the task to be inserted
+     * @throws UnsupportedOperationException if the list is columnar and the task number is
+     *     not the end of the list
+     */
+    public void insertTask(int taskNumber, Task task) {
+        writeLock.lock();
+        try {
+            assert taskNumber >= 0 && taskNumber <= tasks.size() : "Task index out of bounds in insertTask";
+            tasks.add(taskNumber, task);
+            if (keywordIndex != null) {
+                order.add(tasks, taskNumber);
+                keywordIndex.add(task);
+                timeIndex.add(task);
+            }
+            publish();
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -31,25 +184,101 @@ public class TodoList {
      * @return the task with the given number
      */
     public Task getTask(int taskNumber) {
-        assert taskNumber >= 0 && taskNumber < tasks.size() : "Task index out of bounds in getTask";
-        return this.tasks.get(taskNumber);
+        return snapshot.getTask(taskNumber);
     }
 
     /**
-     * Returns a new TodoList containing tasks whose string representation
-     * contains the given keyword.
+     * Marks the task with the given number as done.
+     * Done status should be changed through the todolist so that its listing stays current.
+     *
+     * @param taskNumber the number of the task to mark
+     * @return the marked task
+     */
+    public Task markTask(int taskNumber) {
+        return setDone(taskNumber, true);
+    }
+
+    /**
+     * Marks the task with the given number as not done.
+     * Done status should be changed through the todolist so that its listing stays current.
+     *
+     * @param taskNumber the number of the task to unmark
+     * @return the unmarked task
+     */
+    public Task unmarkTask(int taskNumber) {
+        return setDone(taskNumber, false);
+    }
+
+    private Task setDone(int taskNumber, boolean isDone) {
+        writeLock.lock();
+        try {
+            assert taskNumber >= 0 && taskNumber < tasks.size() : "Task index out of bounds in setDone";
+            Task task = tasks.get(taskNumber);
+            if (task.isDone() == isDone) {
+                return task;
+            }
+            Task updated = replaceDone(taskNumber, isDone);
+            publish();
+            return updated;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the task at the given index with a copy of it with the given done status,
+     * without publishing the change.
+     *
+     * @return the task now at that index
+     */
+    private Task replaceDone(int taskNumber, boolean isDone) {
+        Task task = tasks.get(taskNumber);
+        Task updated = task.withDone(isDone);
+        if (updated == task) {
+            return task;
+        }
+
+        tasks.set(taskNumber, updated);
+        if (keywordIndex != null) {
+            order.replace(task, updated);
+            keywordIndex.replace(task, updated);
+            timeIndex.replace(task, updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Returns a new TodoList containing tasks whose description contains the given keyword,
+     * followed by those that match it once misspellings and case are allowed for, best match
+     * first. See {@link FuzzyQuery} for how close a match has to be.
      *
      * @param keyword the keyword to search for
      * @return a TodoList of matching tasks
      */
     public TodoList findTasks(String keyword) {
-        TodoList matched = new TodoList();
-
-        tasks.stream()
-                .filter(task -> task.toString().contains(keyword))
-                .forEach(matched::addTask);
-
-        return matched;
+        List<Task> matched;
+        if (keywordIndex != null && writeLock.tryLock()) {
+            try {
+                matched = keywordIndex.findRanked(keyword);
+            } finally {
+                writeLock.unlock();
+            }
+        } else {
+            TaskSequence current = snapshot.tasks;
+            Metrics.FIND_SCANNED.add(current.size());
+            FuzzyQuery query = new FuzzyQuery(keyword);
+            FuzzyQuery.Ranking ranking = new FuzzyQuery.Ranking(query);
+            for (int i = 0; i < current.size(); i++) {
+                Task task = current.get(i);
+                int rank = query.rank(task.getDescription());
+                if (rank >= 0) {
+                    ranking.add(task, rank);
+                }
+            }
+            matched = ranking.toList();
+        }
+        Metrics.FIND_MATCHED.add(matched.size());
+        return of(matched);
     }
 
     /**
@@ -57,7 +286,7 @@ public class TodoList {
      * @return the size of the todolist.
      */
     public int size() {
-        return this.tasks.size();
+        return snapshot.size();
     }
 
     /**
@@ -66,8 +295,98 @@ public class TodoList {
      * @return the deleted task
      */
     public Task deleteTask(int taskNumber) {
-        assert taskNumber >= 0 && taskNumber < tasks.size() : "Task index out of bounds in deleteTask";
-        return tasks.remove(taskNumber);
+        writeLock.lock();
+        try {
+            assert taskNumber >= 0 && taskNumber < tasks.size() : "Task index out of bounds in deleteTask";
+            Task removed = tasks.remove(taskNumber);
+            if (keywordIndex != null) {
+                order.remove(removed);
+                timeIndex.remove(removed);
+                keywordIndex.remove(removed);
+                if (keywordIndex.needsRebuild()) {
+                    keywordIndex.rebuild(tasks);
+                }
+            }
+            publish();
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes every task whose index is set in the given selection, in a single pass
+     * over the list, and returns the removed tasks in list order.
+     *
+     * @param selected the zero-based indexes of the tasks to remove
+     * @return the deleted tasks
+     */
+    public List<Task> deleteTasks(BitSet selected) {
+        writeLock.lock();
+        try {
+            assert selected.length() <= tasks.size() : "Task index out of bounds in deleteTasks";
+            List<Task> removed = new ArrayList<>(selected.cardinality());
+            int first = selected.nextSetBit(0);
+            if (first < 0) {
+                return removed;
+            }
+
+            for (int i = first; i >= 0; i = selected.nextSetBit(i + 1)) {
+                removed.add(tasks.get(i));
+            }
+            tasks.removeSelected(selected);
+
+            if (keywordIndex != null) {
+                for (Task task : removed) {
+                    order.remove(task);
+                    timeIndex.remove(task);
+                    keywordIndex.remove(task);
+                }
+                if (keywordIndex.needsRebuild()) {
+                    keywordIndex.rebuild(tasks);
+                }
+            }
+            publish();
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Marks or unmarks every task whose index is set in the given selection,
+     * publishing the result as a single change.
+     *
+     * @param selected the zero-based indexes of the tasks to update
+     * @param isDone true to mark the tasks as done, false to mark them as not done
+     */
+    public void markTasks(BitSet selected, boolean isDone) {
+        writeLock.lock();
+        try {
+            assert selected.length() <= tasks.size() : "Task index out of bounds in markTasks";
+            for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+                replaceDone(i, isDone);
+            }
+            publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the indexes of the tasks that are done.
+     *
+     * @return the zero-based indexes of the done tasks
+     */
+    public BitSet findDoneTasks() {
+        TaskSequence current = snapshot.tasks;
+        BitSet done = new BitSet(current.size());
+        for (int i = 0; i < current.size(); i++) {
+            if (current.get(i).isDone()) {
+                done.set(i);
+            }
+        }
+        return done;
     }
 
     /**
@@ -77,17 +396,119 @@ public class TodoList {
      * - Other tasks (e.g. TodoTask) placed at the end
      */
     public void sortByTime() {
-        tasks.sort((t1, t2) -> {
-            LocalDateTime time1 = getTaskTime(t1);
-            LocalDateTime time2 = getTaskTime(t2);
-            return time1.compareTo(time2);
-        });
+        writeLock.lock();
+        try {
+            if (timeIndex == null) {
+                tasks.sortByTime();
+            } else {
+                List<Task> sorted = timeIndex.sort(tasks);
+                tasks.clear();
+                tasks.addAll(sorted);
+                // Only the order keys follow the new order; the keyword index keeps its ids.
+                order.relabel(tasks);
+            }
+            publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a new TodoList containing the deadlines due on or before the given date,
+     * earliest first.
+     *
+     * @param date the last due date to include
+     * @return a TodoList of matching deadlines
+     */
+    public TodoList findDeadlinesDueBy(LocalDate date) {
+        if (timeIndex != null && writeLock.tryLock()) {
+            try {
+                return of(timeIndex.deadlinesDueBy(date));
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        List<Task> matched = snapshot.filter(task -> task instanceof DeadlineTask
+                && !((DeadlineTask) task).getDeadline().isAfter(date));
+        matched.sort(BY_TIME);
+        return of(matched);
+    }
+
+    /**
+     * Returns a new TodoList containing the events starting between the given times
+     * inclusive, earliest first.
+     *
+     * @param from the earliest start time to include
+     * @param to the latest start time to include
+     * @return a TodoList of matching events
+     */
+    public TodoList findEventsStartingBetween(LocalDateTime from, LocalDateTime to) {
+        if (timeIndex != null && writeLock.tryLock()) {
+            try {
+                return of(timeIndex.eventsStartingBetween(from, to));
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        List<Task> matched = snapshot.filter(task -> task instanceof EventTask
+                && !((EventTask) task).getStart().isBefore(from)
+                && !((EventTask) task).getStart().isAfter(to));
+        matched.sort(BY_TIME);
+        return of(matched);
+    }
+
+    /**
+     * Returns a new TodoList containing the deadlines and events that are not done and fall
+     * due by the given time, including those already overdue, earliest first. Deadlines fall
+     * due at the start of their day and events when they start.
+     *
+     * @param time the latest time to include
+     * @return a TodoList of matching tasks
+     */
+    public TodoList findUnfinishedDueBy(LocalDateTime time) {
+        if (timeIndex != null && writeLock.tryLock()) {
+            try {
+                return of(timeIndex.unfinishedDueBy(time));
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        List<Task> matched = snapshot.filter(task -> (task instanceof DeadlineTask || task instanceof EventTask)
+                && !task.isDone() && !getTaskTime(task).isAfter(time));
+        matched.sort(BY_TIME);
+        return of(matched);
+    }
+
+    /**
+     * Returns a new TodoList containing the deadlines and events that are not done, fall due
+     * by the given time, and have not been returned by an earlier call, earliest first. A task
+     * is returned again only after it is unmarked. Each call takes time in proportion to the
+     * number of tasks returned, not to the size of the list.
+     *
+     * Only indexed lists keep track of reminders; columnar lists always return no tasks.
+     *
+     * @param time the latest time to include
+     * @return a TodoList of the tasks to remind of
+     */
+    public TodoList pollReminders(LocalDateTime time) {
+        if (timeIndex == null) {
+            return of(List.of());
+        }
+        writeLock.lock();
+        try {
+            return of(timeIndex.pollReminders(time));
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
      * Returns the time used for sorting a task.
      */
-    private LocalDateTime getTaskTime(Task task) {
+    private static LocalDateTime getTaskTime(Task task) {
         if (task instanceof DeadlineTask) {
             return ((DeadlineTask) task).getDeadline().atStartOfDay();
         } else if (task instanceof EventTask) {
@@ -97,19 +518,179 @@ public class TodoList {
         }
     }
 
+    /**
+     * Returns the number of pages needed to show every task.
+     *
+     * @param pageSize the number of tasks per page
+     * @return the number of pages, at least 1
+     */
+    public int getPageCount(int pageSize) {
+        return snapshot.getPageCount(pageSize);
+    }
+
+    /**
+     * Returns the numbered listing of one page of tasks.
+     * Only the lines on that page are rendered.
+     *
+     * @param pageNumber the one-based number of the page
+     * @param pageSize the number of tasks per page
+     * @return the numbered lines of the page
+     */
+    public String renderPage(int pageNumber, int pageSize) {
+        return snapshot.renderPage(pageNumber, pageSize);
+    }
+
+    /**
+     * Returns the numbered lines of the listing as a lazy stream.
+     * Each line is rendered only when it is consumed.
+     *
+     * @return a stream of numbered lines, each ending with a newline
+     */
+    public Stream<String> streamLines() {
+        return snapshot.streamLines();
+    }
+
     @Override
     public String toString() {
-        if (tasks.isEmpty()) {
-            return "Your todo list is empty!";
+        return snapshot.toString();
+    }
+
+    /**
+     * Makes the current tasks the latest snapshot. Freezing the list shares it with the
+     * snapshot rather than copying it. Only called while holding the write lock.
+     */
+    private void publish() {
+        TaskSequence published = tasks.freeze();
+        assert published.size() == tasks.size() : "Published tasks out of step with the list";
+        snapshot = new Snapshot(snapshot.version + 1, published);
+    }
+
+    /**
+     * An action that reads and changes a todolist as one step.
+     *
+     * @param <T> the type of the result
+     * @param <E> the type of exception the action may throw
+     */
+    @FunctionalInterface
+    public interface Action<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * One published version of a todolist. A snapshot never changes, and reading from it
+     * never blocks, so it can be read from any thread while the list moves on.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final TaskSequence tasks;
+        private String rendered;
+
+        private Snapshot(long version, TaskSequence tasks) {
+            this.version = version;
+            this.tasks = tasks;
+        }
+
+        /**
+         * Returns the version of the list this snapshot was taken at.
+         * Every change to the list increases the version by one.
+         *
+         * @return the version number
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return tasks.size();
+        }
+
+        /**
+         * Retrieves the task with the given task number.
+         * @param taskNumber the zero-based number of the task to retrieve
+         * @return the task with the given number
+         */
+        public Task getTask(int taskNumber) {
+            assert taskNumber >= 0 && taskNumber < tasks.size() : "Task index out of bounds in getTask";
+            return tasks.get(taskNumber);
+        }
+
+        /**
+         * Returns the number of pages needed to show every task.
+         *
+         * @param pageSize the number of tasks per page
+         * @return the number of pages, at least 1
+         */
+        public int getPageCount(int pageSize) {
+            assert pageSize > 0 : "Page size should be positive";
+            return Math.max(1, (tasks.size() + pageSize - 1) / pageSize);
+        }
+
+        /**
+         * Returns the numbered listing of one page of tasks.
+         * Only the lines on that page are rendered.
+         *
+         * @param pageNumber the one-based number of the page
+         * @param pageSize the number of tasks per page
+         * @return the numbered lines of the page
+         */
+        public String renderPage(int pageNumber, int pageSize) {
+            assert pageNumber >= 1 && pageNumber <= getPageCount(pageSize) : "Page number out of bounds";
+            if (tasks.size() == 0) {
+                return EMPTY_LISTING;
+            }
+
+            int from = (pageNumber - 1) * pageSize;
+            int to = Math.min(tasks.size(), from + pageSize);
+            StringBuilder page = new StringBuilder();
+            for (int i = from; i < to; i++) {
+                page.append(formatLine(i, tasks.get(i)));
+            }
+            return page.toString();
+        }
+
+        /**
+         * Returns the numbered lines of the listing as a lazy stream.
+         * Each line is rendered only when it is consumed.
+         *
+         * @return a stream of numbered lines, each ending with a newline
+         */
+        public Stream<String> streamLines() {
+            return IntStream.range(0, tasks.size())
+                    .mapToObj(i -> formatLine(i, tasks.get(i)));
+        }
+
+        /**
+         * Returns the tasks matching the given filter, in list order.
+         */
+        List<Task> filter(Predicate<Task> filter) {
+            List<Task> matched = new ArrayList<>();
+            for (int i = 0; i < tasks.size(); i++) {
+                Task task = tasks.get(i);
+                if (filter.test(task)) {
+                    matched.add(task);
+                }
+            }
+            return matched;
+        }
+
+        /**
+         * Formats the numbered line of the task at the given index.
+         */
+        private static String formatLine(int index, Task task) {
+            return (index + 1) + ". " + task + "\n";
         }
 
-        StringBuilder stringBuilder = new StringBuilder();
-        for (int i = 0; i < tasks.size(); i++) {
-            stringBuilder.append(i + 1)
-                    .append(". ")
-                    .append(tasks.get(i))
-                    .append("\n");
+        /**
+         * Returns the numbered listing of every task, rendered on first use.
+         */
+        @Override
+        public String toString() {
+            String listing = rendered;
+            if (listing == null) {
+                listing = tasks.size() == 0 ? EMPTY_LISTING : renderPage(1, tasks.size());
+                rendered = listing;
+            }
+            return listing;
         }
-        return stringBuilder.toString();
     }
 }
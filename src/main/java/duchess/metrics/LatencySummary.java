@@ -0,0 +1,40 @@
+package duchess.metrics;
+
+/**
+ * A summary of one latency histogram at one moment, in microseconds.
+ */
+public class LatencySummary {
+    private final long count;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double maxMicros;
+
+    LatencySummary(LatencyHistogram histogram) {
+        this.count = histogram.getCount();
+        this.meanMicros = histogram.getMeanNanos() / 1_000.0;
+        this.p50Micros = histogram.getPercentileNanos(50) / 1_000.0;
+        this.p99Micros = histogram.getPercentileNanos(99) / 1_000.0;
+        this.maxMicros = histogram.getMaxNanos() / 1_000.0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+}
@@ -0,0 +1,138 @@
+package duchess.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Holds the counters and latency histograms recorded by the engine, by name.
+ *
+ * Metrics are created on first use and live for the rest of the process, so the hot paths
+ * keep a reference to theirs and only pay for the record itself. Gauges are the exception:
+ * they are read from their owner whenever they are shown, and are not reset. Everything
+ * recorded here is published over JMX as duchess:type=Metrics, and summarised by the stats
+ * command.
+ */
+public final class Metrics {
+    public static final String OBJECT_NAME = "duchess:type=Metrics";
+
+    private static final Map<String, LatencyHistogram> LATENCIES = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentSkipListMap<>();
+
+    public static final LatencyHistogram PARSE = latency("parse");
+    public static final LatencyHistogram FETCH_TASKS = latency("storage.fetchTasks");
+    public static final LatencyHistogram WRITE_TASKS = latency("storage.writeTasks");
+    public static final LatencyHistogram JOURNAL_WRITE = latency("storage.journalWrite");
+    public static final LatencyHistogram DIALOG_BOX = latency("ui.dialogBox");
+    public static final LongAdder FETCH_TASKS_BYTES = counter("storage.fetchTasks.bytes");
+    public static final LongAdder WRITE_TASKS_BYTES = counter("storage.writeTasks.bytes");
+    public static final LongAdder JOURNAL_WRITE_RECORDS = counter("storage.journalWrite.records");
+    public static final LongAdder FIND_SCANNED = counter("find.scanned");
+    public static final LongAdder FIND_MATCHED = counter("find.matched");
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsBean(), new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException e) {
+            System.err.println("Couldn't publish the royal accounts over JMX: " + e.getMessage());
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns the latency histogram with the given name, creating it if needed.
+     *
+     * @param name the name of the histogram, such as "command.list"
+     * @return the histogram
+     */
+    public static LatencyHistogram latency(String name) {
+        return LATENCIES.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Returns the counter with the given name, creating it if needed.
+     *
+     * @param name the name of the counter, such as "find.scanned"
+     * @return the counter
+     */
+    public static LongAdder counter(String name) {
+        return COUNTERS.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Publishes a value owned elsewhere under the given name, replacing any gauge of that name.
+     *
+     * @param name the name of the gauge, such as "storage.journal.queueDepth"
+     * @param value reads the current value
+     */
+    public static void gauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    static Map<String, LatencyHistogram> getLatencies() {
+        return LATENCIES;
+    }
+
+    static Map<String, LongAdder> getCounters() {
+        return COUNTERS;
+    }
+
+    static Map<String, LongSupplier> getGauges() {
+        return GAUGES;
+    }
+
+    /**
+     * Forgets everything recorded so far, keeping the metrics themselves. Gauges are left
+     * to their owners.
+     */
+    public static void reset() {
+        LATENCIES.values().forEach(LatencyHistogram::reset);
+        COUNTERS.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Returns one line per metric that has recorded anything, in name order.
+     * Latencies show their call count, mean, median, 99th percentile and maximum.
+     *
+     * @return the summary, empty if nothing has been recorded
+     */
+    public static String render() {
+        StringBuilder summary = new StringBuilder();
+        LATENCIES.forEach((name, histogram) -> {
+            if (histogram.getCount() > 0) {
+                summary.append(String.format(Locale.ROOT,
+                        "%s: %d calls, mean %s, p50 %s, p99 %s, max %s\n", name, histogram.getCount(),
+                        formatNanos(histogram.getMeanNanos()), formatNanos(histogram.getPercentileNanos(50)),
+                        formatNanos(histogram.getPercentileNanos(99)), formatNanos(histogram.getMaxNanos())));
+            }
+        });
+        COUNTERS.forEach((name, counter) -> {
+            if (counter.sum() > 0) {
+                summary.append(name).append(": ").append(counter.sum()).append("\n");
+            }
+        });
+        GAUGES.forEach((name, gauge) -> {
+            long value = gauge.getAsLong();
+            if (value > 0) {
+                summary.append(name).append(": ").append(value).append("\n");
+            }
+        });
+        return summary.toString();
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1f \u00b5s", nanos / 1_000.0);
+        }
+        return String.format(Locale.ROOT, "%.1f ms", nanos / 1_000_000.0);
+    }
+}
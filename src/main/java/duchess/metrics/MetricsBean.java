@@ -0,0 +1,35 @@
+package duchess.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Publishes the metrics held by {@link Metrics} over JMX.
+ */
+class MetricsBean implements MetricsMXBean {
+    @Override
+    public Map<String, LatencySummary> getLatencies() {
+        Map<String, LatencySummary> latencies = new TreeMap<>();
+        Metrics.getLatencies().forEach((name, histogram) -> latencies.put(name, new LatencySummary(histogram)));
+        return latencies;
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> counters = new TreeMap<>();
+        Metrics.getCounters().forEach((name, counter) -> counters.put(name, counter.sum()));
+        return counters;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> gauges = new TreeMap<>();
+        Metrics.getGauges().forEach((name, gauge) -> gauges.put(name, gauge.getAsLong()));
+        return gauges;
+    }
+
+    @Override
+    public void reset() {
+        Metrics.reset();
+    }
+}
@@ -0,0 +1,28 @@
+package duchess.metrics;
+
+import java.util.Map;
+
+/**
+ * The view of {@link Metrics} published over JMX.
+ */
+public interface MetricsMXBean {
+    /**
+     * Returns a summary of every latency histogram, by name.
+     */
+    Map<String, LatencySummary> getLatencies();
+
+    /**
+     * Returns the value of every counter, by name.
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Returns the current value of every gauge, by name.
+     */
+    Map<String, Long> getGauges();
+
+    /**
+     * Forgets everything recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,145 @@
+package duchess.parser;
+
+import java.util.Arrays;
+
+/**
+ * Holds one command split into its command word, description and flag values.
+ *
+ * The input is kept as a normalised copy in a char buffer, and each part is only recorded as
+ * a slice of that buffer. Strings are created only for the parts a command asks for, and the
+ * buffer is reused by the next {@link Parser#parse(String, ParsedCommand)}, so parsing a
+ * command allocates almost nothing.
+ */
+public class ParsedCommand {
+    char[] chars = new char[64];
+    int length;
+    int commandEnd;
+    final int[] flagStarts = new int[Parser.FLAGS.length];
+    final int[] flagEnds = new int[Parser.FLAGS.length];
+
+    /**
+     * Clears the previous command and makes room for an input of the given length.
+     */
+    void reset(int capacity) {
+        if (chars.length < capacity) {
+            chars = new char[Math.max(capacity, chars.length * 2)];
+        }
+        length = 0;
+        commandEnd = 0;
+        Arrays.fill(flagStarts, -1);
+        Arrays.fill(flagEnds, -1);
+    }
+
+    /**
+     * Returns the command word, the first word of the input.
+     *
+     * @return the command word, empty if the input was blank
+     */
+    public String getCommand() {
+        return new String(chars, 0, commandEnd);
+    }
+
+    /**
+     * Returns whether the command word is the given word, without creating a string.
+     *
+     * @param word the word to compare against
+     * @return true if the command word is exactly the given word
+     */
+    public boolean isCommand(String word) {
+        return regionEquals(0, commandEnd, word);
+    }
+
+    /**
+     * Returns everything after the command word, with whitespace collapsed to single spaces.
+     *
+     * @return the rest of the input, empty if there is none
+     */
+    public String getRest() {
+        int start = getRestStart();
+        return new String(chars, start, length - start);
+    }
+
+    /**
+     * Returns the text between the command word and the first of the given flags. Other flags
+     * are left in the description, so "deadline walk /to school /by 2026-03-01" keeps
+     * "walk /to school" when only /by is given.
+     *
+     * @param flags the flags the command takes
+     * @return the description, empty if there is none
+     */
+    public String getDescription(String... flags) {
+        int start = getRestStart();
+        return slice(start, findEnd(start, flags));
+    }
+
+    /**
+     * Returns whether the given flag appears in the input.
+     *
+     * @param flag one of the flags known to {@link Parser}, such as "/by"
+     * @return true if the flag was given
+     */
+    public boolean hasFlag(String flag) {
+        return flagStarts[Parser.indexOfFlag(flag)] >= 0;
+    }
+
+    /**
+     * Returns the value of the given flag, which runs until the next of the other given flags
+     * or the end of the input. Flags the command does not take are left in the value.
+     *
+     * @param flag one of the flags known to {@link Parser}, such as "/by"
+     * @param otherFlags the other flags the command takes
+     * @return the value of the flag, empty if the flag has no value or was not given
+     */
+    public String getFlag(String flag, String... otherFlags) {
+        int index = Parser.indexOfFlag(flag);
+        if (flagStarts[index] < 0) {
+            return "";
+        }
+
+        int start = flagEnds[index];
+        return slice(start, findEnd(start, otherFlags));
+    }
+
+    /**
+     * Returns where the first of the given flags after a position starts, or the end of the input.
+     */
+    private int findEnd(int start, String[] flags) {
+        int end = length;
+        for (String flag : flags) {
+            int flagStart = flagStarts[Parser.indexOfFlag(flag)];
+            if (flagStart >= start && flagStart < end) {
+                end = flagStart;
+            }
+        }
+        return end;
+    }
+
+    private int getRestStart() {
+        return Math.min(commandEnd + 1, length);
+    }
+
+    /**
+     * Returns the text between the given positions without the spaces at either end.
+     */
+    private String slice(int start, int end) {
+        while (start < end && chars[start] == ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] == ' ') {
+            end--;
+        }
+        return new String(chars, start, end - start);
+    }
+
+    boolean regionEquals(int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (chars[start + i] != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -2,29 +2,88 @@ package duchess.parser;
 
 /**
  * Handles parsing of commands inputted by user.
+ *
+ * Commands are read in a single pass over the input, without regular expressions: runs of
+ * whitespace are collapsed to single spaces, and the command word and the known flags are
+ * noted as they go by.
  */
 public class Parser {
+    public static final String FLAG_BY = "/by";
+    public static final String FLAG_FROM = "/from";
+    public static final String FLAG_TO = "/to";
+
+    static final String[] FLAGS = {FLAG_BY, FLAG_FROM, FLAG_TO};
 
     /**
-     * Returns the command word of the input string given by the user.
+     * Parses the input given by the user into the given command, replacing what it held.
+     * A flag only counts as a whole word, and only its first appearance is noted.
+     *
      * @param input full input string
-     * @return command word
+     * @param command the parsed command to fill in
+     * @return the given parsed command
      */
-    public static String getCommand(String input) {
-        String[] parts = input.trim().split(" ", 2);
-        assert parts.length >= 1 : "Input should always have at least one part for command";
-        assert parts[0] != null && !parts[0].isEmpty() : "Command should not be null or empty";
-        return parts[0];
+    public static ParsedCommand parse(String input, ParsedCommand command) {
+        command.reset(input.length());
+        char[] chars = command.chars;
+        int length = 0;
+        int wordStart = -1;
+        boolean isFirstWord = true;
+
+        for (int i = 0; i <= input.length(); i++) {
+            boolean isSpace = i == input.length() || isWhitespace(input.charAt(i));
+            if (!isSpace) {
+                if (wordStart < 0) {
+                    if (length > 0) {
+                        chars[length++] = ' ';
+                    }
+                    wordStart = length;
+                }
+                chars[length++] = input.charAt(i);
+                continue;
+            }
+            if (wordStart < 0) {
+                continue;
+            }
+
+            if (isFirstWord) {
+                command.commandEnd = length;
+                isFirstWord = false;
+            } else if (chars[wordStart] == '/') {
+                noteFlag(command, wordStart, length);
+            }
+            wordStart = -1;
+        }
+
+        command.length = length;
+        return command;
     }
 
     /**
-     * Returns the rest of the command, without the command word.
-     * @param input full input string
-     * @return description of command without command word.
+     * Returns the position of a flag in {@link #FLAGS}.
+     */
+    static int indexOfFlag(String flag) {
+        for (int i = 0; i < FLAGS.length; i++) {
+            if (FLAGS[i].equals(flag)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown flag " + flag);
+    }
+
+    private static void noteFlag(ParsedCommand command, int start, int end) {
+        for (int i = 0; i < FLAGS.length; i++) {
+            if (command.flagStarts[i] < 0 && command.regionEquals(start, end, FLAGS[i])) {
+                command.flagStarts[i] = start;
+                command.flagEnds[i] = end;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Matches the characters of the \s regular expression class.
      */
-    public static String getRest(String input) {
-        String[] parts = input.trim().split(" ", 2);
-        assert parts != null : "Split parts should not be null";
-        return parts.length > 1 ? parts[1] : "";
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
     }
 }
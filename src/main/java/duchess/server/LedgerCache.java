@@ -0,0 +1,257 @@
+package duchess.server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import duchess.Duchess;
+
+/**
+ * Keeps the ledgers of recently active users open, up to a fixed number.
+ *
+ * A ledger is loaded from disk the first time its user is seen. When more ledgers are open
+ * than the cache holds, the least recently used ledger that is not serving a request is closed,
+ * which saves it to disk and frees its tasks and writer thread. Ledgers left idle for too long
+ * are closed the same way by {@link #evictIdle(long)}. A user whose ledger is still being closed
+ * waits for that to finish before the ledger is loaded again, so a ledger is never open twice.
+ * Nor is a ledger ever closed while it serves a request, even when the server stops.
+ */
+class LedgerCache {
+    private final int capacity;
+    private final Function<String, Duchess> loader;
+    private final LinkedHashMap<String, Ledger> ledgers = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Ledger> closing = new HashMap<>();
+    private int leases;
+    private boolean isStopped;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity the number of ledgers to keep open when they are not in use
+     * @param loader opens the ledger of the given user
+     */
+    LedgerCache(int capacity, Function<String, Duchess> loader) {
+        assert capacity > 0 : "Ledger cache capacity should be positive";
+        this.capacity = capacity;
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the ledger of the given user, which stays open until it is released.
+     * Every ledger acquired must be passed to {@link #release(Ledger)} once the caller is done.
+     *
+     * @param user the name of the user
+     * @return the user's ledger, loaded on first use by {@link Ledger#getDuchess()}
+     * @throws IllegalStateException if the cache has been closed by {@link #closeAll(long, TimeUnit)}
+     */
+    Ledger acquire(String user) {
+        Ledger ledger;
+        List<Ledger> evicted;
+        synchronized (this) {
+            if (isStopped) {
+                throw new IllegalStateException("The ledger cache is closed");
+            }
+            ledger = ledgers.get(user);
+            if (ledger == null) {
+                ledger = new Ledger(user, closing.get(user));
+                ledgers.put(user, ledger);
+            }
+            ledger.leases++;
+            leases++;
+            ledger.lastUsed = System.nanoTime();
+            evicted = evictOverCapacity();
+        }
+        close(evicted);
+        return ledger;
+    }
+
+    /**
+     * Hands back a ledger acquired by {@link #acquire(String)}. Once the cache is closed,
+     * the last lease on a ledger closes it.
+     *
+     * @param ledger the ledger to hand back
+     */
+    void release(Ledger ledger) {
+        List<Ledger> evicted;
+        synchronized (this) {
+            ledger.leases--;
+            leases--;
+            ledger.lastUsed = System.nanoTime();
+            if (isStopped) {
+                notifyAll();
+                evicted = ledger.leases == 0 && ledgers.remove(ledger.user, ledger)
+                        ? List.of(startClosing(ledger))
+                        : List.of();
+            } else {
+                evicted = evictOverCapacity();
+            }
+        }
+        close(evicted);
+    }
+
+    /**
+     * Closes every ledger that has not been used for the given time.
+     *
+     * @param idleNanos how long a ledger may go unused before it is closed
+     */
+    void evictIdle(long idleNanos) {
+        List<Ledger> evicted = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (this) {
+            Iterator<Ledger> iterator = ledgers.values().iterator();
+            while (iterator.hasNext()) {
+                Ledger ledger = iterator.next();
+                if (ledger.leases == 0 && now - ledger.lastUsed > idleNanos) {
+                    iterator.remove();
+                    evicted.add(startClosing(ledger));
+                }
+            }
+        }
+        close(evicted);
+    }
+
+    /**
+     * Stops handing out ledgers and closes every open one. Called when the server stops.
+     *
+     * Waits up to the given time for the requests still being served to hand their ledgers
+     * back. Ledgers still in use after that are closed when their last lease is released, so
+     * that no request ever records a change into a closed ledger.
+     *
+     * @param timeout the longest to wait for ledgers in use
+     * @param unit the unit of the timeout
+     */
+    void closeAll(long timeout, TimeUnit unit) {
+        List<Ledger> evicted = new ArrayList<>();
+        synchronized (this) {
+            isStopped = true;
+            long remaining = unit.toNanos(timeout);
+            long deadline = System.nanoTime() + remaining;
+            try {
+                while (leases > 0 && remaining > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    remaining = deadline - System.nanoTime();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            Iterator<Ledger> iterator = ledgers.values().iterator();
+            while (iterator.hasNext()) {
+                Ledger ledger = iterator.next();
+                if (ledger.leases == 0) {
+                    iterator.remove();
+                    evicted.add(startClosing(ledger));
+                }
+            }
+        }
+        close(evicted);
+    }
+
+    /**
+     * Returns the number of ledgers open or waiting to be loaded.
+     *
+     * @return the number of ledgers in the cache
+     */
+    synchronized int size() {
+        return ledgers.size();
+    }
+
+    /**
+     * Takes the least recently used idle ledgers out of the cache until it is back within
+     * capacity. Ledgers in use are skipped, so the cache may stay over capacity for a while
+     * when more users are active at once than it holds.
+     */
+    private List<Ledger> evictOverCapacity() {
+        List<Ledger> evicted = new ArrayList<>();
+        Iterator<Ledger> iterator = ledgers.values().iterator();
+        while (ledgers.size() > capacity && iterator.hasNext()) {
+            Ledger ledger = iterator.next();
+            if (ledger.leases == 0) {
+                iterator.remove();
+                evicted.add(startClosing(ledger));
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Notes that a ledger taken out of the cache is being closed, so that its user waits
+     * for that before loading it again.
+     */
+    private Ledger startClosing(Ledger ledger) {
+        closing.put(ledger.user, ledger);
+        return ledger;
+    }
+
+    /**
+     * Closes evicted ledgers outside the cache lock, since saving a ledger waits on the disk.
+     */
+    private void close(List<Ledger> evicted) {
+        for (Ledger ledger : evicted) {
+            ledger.close();
+            synchronized (this) {
+                closing.remove(ledger.user, ledger);
+            }
+        }
+    }
+
+    /**
+     * The ledger of one user, loaded when first asked for.
+     */
+    class Ledger {
+        private final String user;
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private Ledger previous;
+        private Duchess duchess;
+        private boolean isClosed;
+
+        // Guarded by the cache.
+        private int leases;
+        private long lastUsed;
+
+        private Ledger(String user, Ledger previous) {
+            this.user = user;
+            this.previous = previous;
+        }
+
+        /**
+         * Returns the Duchess serving this ledger, loading the ledger if this is its first use.
+         *
+         * @return the Duchess for this user
+         */
+        synchronized Duchess getDuchess() {
+            assert !isClosed : "Ledger used after it was closed";
+            if (duchess == null) {
+                if (previous != null) {
+                    previous.awaitClosed();
+                    previous = null;
+                }
+                duchess = loader.apply(user);
+            }
+            return duchess;
+        }
+
+        private synchronized void close() {
+            if (duchess != null) {
+                duchess.close();
+                duchess = null;
+            }
+            isClosed = true;
+            closed.countDown();
+        }
+
+        private void awaitClosed() {
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package duchess.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import duchess.Duchess;
+import duchess.command.Response;
+import duchess.storage.FileStorage;
+
+/**
+ * Runs Duchess as a shared service on localhost, giving each user a ledger of their own.
+ *
+ * A command is sent as the body of a POST to /ledgers/NAME, and the reply comes back as plain
+ * text, with the kind of command it answers in the Duchess-Response-Type header. Each user's
+ * ledger lives in its own directory under data/users, and only the ledgers of recently active
+ * users are kept in memory by a {@link LedgerCache}. Requests are served by a fixed pool of
+ * worker threads, so a user holds no thread between commands.
+ */
+public class LedgerServer {
+    public static final String FLAG_SERVE = "--serve";
+
+    private static final int DEFAULT_PORT = 8765;
+    private static final int MAX_OPEN_LEDGERS = Integer.getInteger("duchess.maxLedgers", 64);
+    private static final int WORKER_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final long IDLE_TIMEOUT_MINUTES = 10;
+    private static final long SHUTDOWN_GRACE_SECONDS = 10;
+    private static final int MAX_COMMAND_BYTES = 64 * 1024;
+
+    private static final String CONTEXT_PATH = "/ledgers/";
+    private static final String RESPONSE_TYPE_HEADER = "Duchess-Response-Type";
+    private static final Pattern USER_NAME = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+    private static final Path USERS_DIRECTORY = FileStorage.DEFAULT_DIRECTORY.resolve("users");
+
+    private final LedgerCache ledgers;
+
+    private LedgerServer(LedgerCache ledgers) {
+        this.ledgers = ledgers;
+    }
+
+    /**
+     * Starts the server on the port named after the serve flag, or on the default port.
+     * The server keeps running after this returns, until the JVM is stopped.
+     *
+     * @param args the command line arguments, starting with the serve flag
+     * @return false if the server could not be started
+     */
+    public static boolean start(String[] args) {
+        int port;
+        try {
+            port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        } catch (NumberFormatException e) {
+            System.out.println("That port makes no sense in my kingdom: " + args[1]);
+            return false;
+        }
+
+        LedgerCache ledgers = new LedgerCache(MAX_OPEN_LEDGERS,
+                user -> new Duchess(new FileStorage(USERS_DIRECTORY.resolve(user))));
+        HttpServer server;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            System.out.println("The royal court cannot convene on port " + port + ": " + e.getMessage());
+            return false;
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(WORKER_THREADS, daemonThreads("duchess-server"));
+        ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(
+                daemonThreads("duchess-ledger-sweeper"));
+        sweeper.scheduleWithFixedDelay(() -> ledgers.evictIdle(TimeUnit.MINUTES.toNanos(IDLE_TIMEOUT_MINUTES)),
+                1, 1, TimeUnit.MINUTES);
+
+        server.createContext(CONTEXT_PATH, new LedgerServer(ledgers)::handle);
+        server.setExecutor(workers);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(0);
+            ledgers.closeAll(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS);
+        }, "duchess-server-shutdown"));
+        server.start();
+
+        System.out.println("Duchess holds court at http://localhost:" + server.getAddress().getPort()
+                + CONTEXT_PATH + "NAME, peasant.");
+        return true;
+    }
+
+    /**
+     * Returns whether the given command line arguments ask for server mode.
+     *
+     * @param args the command line arguments
+     * @return true if the first argument is the serve flag
+     */
+    public static boolean isServerMode(String[] args) {
+        return args.length > 0 && FLAG_SERVE.equals(args[0]);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String user = exchange.getRequestURI().getPath().substring(CONTEXT_PATH.length());
+            if (!USER_NAME.matcher(user).matches()) {
+                reply(exchange, 404, Response.Type.DEFAULT,
+                        "No such peasant. Names use letters, digits, - and _, up to 32 of them.");
+                return;
+            }
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                reply(exchange, 405, Response.Type.DEFAULT, "Send your command as a POST, peasant.");
+                return;
+            }
+
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readNBytes(MAX_COMMAND_BYTES + 1);
+            }
+            if (body.length > MAX_COMMAND_BYTES) {
+                reply(exchange, 413, Response.Type.DEFAULT, "Your demands are far too long, peasant.");
+                return;
+            }
+
+            // Names are folded to lower case, so that "Alice" and "alice" share one cache entry
+            // and one writer even where the file system would give them the same directory.
+            Response response = respond(user.toLowerCase(Locale.ROOT), new String(body, StandardCharsets.UTF_8).strip());
+            reply(exchange, 200, response.getType(), response.getText());
+        }
+    }
+
+    private Response respond(String user, String input) {
+        LedgerCache.Ledger ledger;
+        try {
+            ledger = ledgers.acquire(user);
+        } catch (IllegalStateException e) {
+            return new Response(Response.Type.DEFAULT, "The royal court has adjourned, peasant.");
+        }
+        try {
+            return ledger.getDuchess().respond(input);
+        } catch (RuntimeException e) {
+            return new Response(Response.Type.DEFAULT,
+                    "Something has gone terribly wrong in the royal court: " + e.getMessage());
+        } finally {
+            ledgers.release(ledger);
+        }
+    }
+
+    private static void reply(HttpExchange exchange, int status, Response.Type type, String text)
+            throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.getResponseHeaders().set(RESPONSE_TYPE_HEADER, type.name());
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
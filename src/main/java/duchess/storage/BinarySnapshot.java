@@ -0,0 +1,210 @@
+package duchess.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import duchess.task.DeadlineTask;
+import duchess.task.EventTask;
+import duchess.task.Task;
+import duchess.task.TodoTask;
+
+/**
+ * Reads and writes the versioned binary snapshot of the royal ledger.
+ *
+ * Layout: the magic number "DUCH", a version byte and the task count, followed by one record
+ * per task holding a type tag, a done flag, a length-prefixed UTF-8 description and, for
+ * deadlines and events, their dates as epoch days or UTC epoch seconds.
+ */
+class BinarySnapshot {
+    private static final int MAGIC = 0x44554348;
+    private static final byte VERSION = 1;
+
+    private static final byte TAG_TODO = 'T';
+    private static final byte TAG_DEADLINE = 'D';
+    private static final byte TAG_EVENT = 'E';
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** The fewest bytes a task record can take: its tag, done flag and description length. */
+    private static final int MIN_RECORD_BYTES = 6;
+
+    /**
+     * Writes the given tasks to a snapshot file, and forces it to disk before returning,
+     * so that the file can be renamed over an older snapshot without risk of tearing.
+     *
+     * @param path the file to write
+     * @param tasks the tasks to write, in list order
+     * @param done the done status of each task, captured alongside the tasks
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path path, List<Task> tasks, BitSet done) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(tasks.size());
+
+            for (int i = 0; i < tasks.size(); i++) {
+                Task task = tasks.get(i);
+                byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+
+                if (task instanceof DeadlineTask) {
+                    out.writeByte(TAG_DEADLINE);
+                } else if (task instanceof EventTask) {
+                    out.writeByte(TAG_EVENT);
+                } else {
+                    out.writeByte(TAG_TODO);
+                }
+                out.writeBoolean(done.get(i));
+                out.writeInt(description.length);
+                out.write(description);
+
+                if (task instanceof DeadlineTask) {
+                    out.writeLong(((DeadlineTask) task).getDeadline().toEpochDay());
+                } else if (task instanceof EventTask) {
+                    EventTask event = (EventTask) task;
+                    out.writeLong(event.getStart().toEpochSecond(ZoneOffset.UTC));
+                    out.writeLong(event.getEnd().toEpochSecond(ZoneOffset.UTC));
+                }
+            }
+
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Reads every task in a snapshot file. A snapshot is either read whole or not at all:
+     * a truncated or damaged file fails rather than yielding the tasks before the damage.
+     *
+     * @param path the file to read
+     * @return the tasks in list order
+     * @throws IOException if the file is not a whole, valid snapshot or cannot be read
+     */
+    static List<Task> read(Path path) throws IOException {
+        try (CountingInputStream counter = new CountingInputStream(
+                new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE), Files.size(path));
+                DataInputStream in = new DataInputStream(counter)) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a Duchess snapshot: " + path);
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+
+            int count = in.readInt();
+            if (count < 0 || count > counter.remaining() / MIN_RECORD_BYTES) {
+                throw new IOException("Snapshot claims " + count + " tasks, more than it can hold");
+            }
+            List<Task> tasks = new ArrayList<>(count);
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < count; i++) {
+                tasks.add(readTask(in, counter, scratch));
+            }
+            if (counter.remaining() != 0) {
+                throw new IOException("Snapshot has " + counter.remaining() + " bytes after its last task");
+            }
+            return tasks;
+        } catch (EOFException e) {
+            throw new IOException("Snapshot ended early: " + path, e);
+        }
+    }
+
+    private static Task readTask(DataInputStream in, CountingInputStream counter, byte[] scratch)
+            throws IOException {
+        byte tag = in.readByte();
+        boolean isDone = in.readBoolean();
+        int length = in.readInt();
+        if (length < 0 || length > counter.remaining()) {
+            throw new IOException("Task description of " + length + " bytes does not fit in the snapshot");
+        }
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        in.readFully(bytes, 0, length);
+        String description = new String(bytes, 0, length, StandardCharsets.UTF_8);
+
+        Task task;
+        try {
+            switch (tag) {
+            case TAG_TODO:
+                task = new TodoTask(description, isDone);
+                break;
+            case TAG_DEADLINE:
+                task = new DeadlineTask(description, LocalDate.ofEpochDay(in.readLong()), isDone);
+                break;
+            case TAG_EVENT:
+                LocalDateTime start = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+                LocalDateTime end = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+                task = new EventTask(description, start, end, isDone);
+                break;
+            default:
+                throw new IOException("Unknown task tag " + tag);
+            }
+        } catch (DateTimeException e) {
+            throw new IOException("Task date out of range: " + e.getMessage(), e);
+        }
+        return task;
+    }
+
+    /**
+     * Counts the bytes read from a file of known size, so that lengths read from the file
+     * can be checked against what is left of it before anything is allocated for them.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long remaining;
+
+        CountingInputStream(InputStream in, long size) {
+            super(in);
+            this.remaining = size;
+        }
+
+        long remaining() {
+            return remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = super.read(bytes, offset, length);
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            remaining -= skipped;
+            return skipped;
+        }
+    }
+}
@@ -1,94 +1,677 @@
 package duchess.storage;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Scanner;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 import duchess.list.TodoList;
-import duchess.task.DeadlineTask;
-import duchess.task.EventTask;
+import duchess.metrics.Metrics;
 import duchess.task.Task;
-import duchess.task.TodoTask;
 
 /**
  * Handles writing tasks to and fetching tasks from the hard disk.
+ *
+ * The royal ledger is kept as a binary snapshot (data/duchess.bin) plus an append-only journal
+ * (data/duchess.journal). Each mutation queues a single journal record, which is written
+ * behind the caller by a {@link WriteBehindPersister}, and the journal is folded back into
+ * the snapshot in the background once it grows past {@link #COMPACTION_THRESHOLD_BYTES}. Ledgers saved in the older text format
+ * (data/duchess.txt) are migrated to the binary snapshot the first time they are loaded.
+ *
+ * Each compaction also keeps the snapshot it replaces (data/duchess.bin.prev) along with the
+ * journal leading from it to the new one (data/duchess.journal.prev), or a copy of the new
+ * snapshot when no journal leads to it. If the snapshot is ever found damaged, the ledger is
+ * rebuilt from that copy and every journal since, rather than lost.
+ *
+ * Each FileStorage looks after the ledger in one directory, so several ledgers can be open at
+ * once. The default directory can be moved with the duchess.dataDir system property, which keeps
+ * benchmarks and other tools away from the real ledger. Setting duchess.columnarTasks loads
+ * ledgers into columnar todolists, which suit ledgers of millions of tasks, and setting
+ * duchess.offHeapTasks loads them outside the heap altogether.
  */
 public class FileStorage {
+    /** The directory holding the ledger of the desktop app and batch mode. */
+    public static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("duchess.dataDir", "data"));
+
+    private static final boolean IS_COLUMNAR = Boolean.getBoolean("duchess.columnarTasks");
+    private static final boolean IS_OFF_HEAP = Boolean.getBoolean("duchess.offHeapTasks");
+    private static final long COMPACTION_THRESHOLD_BYTES = 1 << 20;
+
+    private static final String RECORD_ADD = "+";
+    private static final String RECORD_MARK = "M";
+    private static final String RECORD_DELETE = "-";
+    private static final String RECORD_SORT = "S";
+    private static final String RECORD_MARK_ALL = "M*";
+    private static final String RECORD_DELETE_ALL = "-*";
+    private static final String SEPARATOR = " | ";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+
+    private final Path dataDirectory;
+    private final Path snapshotPath;
+    private final Path tempSnapshotPath;
+    private final Path nextSnapshotPath;
+    private final Path previousSnapshotPath;
+    private final Path previousJournalPath;
+    private final Path textSnapshotPath;
+    private final Path migratedTextSnapshotPath;
+    private final Path exportPath;
+    private final Path journalPath;
+    private final Path pendingJournalPath;
+
+    private final WriteBehindPersister persister;
+    private final Thread shutdownHook;
+
+    private long journalBytes;
+    private boolean isBatching;
+    private boolean isBatchDirty;
+    private String loadNotice;
+
+    /**
+     * Creates the storage for the ledger kept in the given directory and starts its writer thread.
+     * Nothing is read until {@link #fetchTasks()} is called. Every mutation recorded is flushed when
+     * the JVM shuts down, or earlier by {@link #close()}.
+     *
+     * @param dataDirectory the directory holding the ledger files
+     */
+    public FileStorage(Path dataDirectory) {
+        this.dataDirectory = dataDirectory;
+        this.snapshotPath = dataDirectory.resolve("duchess.bin");
+        this.tempSnapshotPath = dataDirectory.resolve("duchess.bin.tmp");
+        this.nextSnapshotPath = dataDirectory.resolve("duchess.bin.next");
+        this.previousSnapshotPath = dataDirectory.resolve("duchess.bin.prev");
+        this.previousJournalPath = dataDirectory.resolve("duchess.journal.prev");
+        this.textSnapshotPath = dataDirectory.resolve("duchess.txt");
+        this.migratedTextSnapshotPath = dataDirectory.resolve("duchess.txt.migrated");
+        this.exportPath = dataDirectory.resolve("duchess-export.txt");
+        this.journalPath = dataDirectory.resolve("duchess.journal");
+        this.pendingJournalPath = dataDirectory.resolve("duchess.journal.pending");
+
+        this.persister = new WriteBehindPersister(journalPath);
+        this.shutdownHook = new Thread(() -> {
+            try {
+                persister.flush();
+            } catch (IOException e) {
+                // Already reported by the writer thread, and there is no one left to tell.
+            }
+        }, "duchess-persister-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
 
     /**
      * Fetches tasks from the hard disk and loads them into a TodoList.
+     * The snapshot is read first, then any journal records are replayed on top of it.
      * If no data file exists, an empty task list is returned.
      *
      * @return a TodoList containing all previously saved tasks.
      */
-    public static TodoList fetchTasks() {
-        TodoList todolist = new TodoList();
-        File f = new File("data/duchess.txt");
-        if (!f.exists()) {
-            System.out.println("No existing data found. Starting with a fresh list, peasant!");
+    public synchronized TodoList fetchTasks() {
+        long start = System.nanoTime();
+        try {
+            return loadTasks();
+        } finally {
+            Metrics.FETCH_TASKS.recordSince(start);
+        }
+    }
+
+    private TodoList loadTasks() {
+        recoverCompaction();
+
+        TodoList todolist = IS_OFF_HEAP ? TodoList.offHeap() : IS_COLUMNAR ? TodoList.columnar() : new TodoList();
+        // A kept snapshot without a current one means the last was set aside before it could
+        // be rewritten, so it is restored from the kept one like any other damaged snapshot.
+        boolean hasSnapshot = Files.exists(snapshotPath) || Files.exists(previousSnapshotPath);
+        boolean needsMigration = !hasSnapshot && Files.exists(textSnapshotPath);
+        boolean hasPendingJournal = Files.exists(pendingJournalPath);
+        if (!hasSnapshot && !needsMigration && !hasPendingJournal && !Files.exists(journalPath)) {
+            System.err.println("No existing data found. Starting with a fresh list, peasant!");
             return todolist;
         }
 
-        try (Scanner scanner = new Scanner(f)) {
-            while (scanner.hasNextLine()) {
-                String next = scanner.nextLine();
-                String[] parts = next.split(" \\| ");
+        Metrics.FETCH_TASKS_BYTES.add(sizeOf(hasSnapshot ? snapshotPath : textSnapshotPath)
+                + sizeOf(pendingJournalPath) + sizeOf(journalPath));
+        List<Task> tasks;
+        boolean isRestored = false;
+        try {
+            tasks = hasSnapshot
+                    ? BinarySnapshot.read(snapshotPath)
+                    : needsMigration ? MappedTaskReader.read(textSnapshotPath) : List.of();
+        } catch (IOException e) {
+            System.err.println("Couldn't read data file: " + e.getMessage());
+            tasks = hasSnapshot ? readPreviousSnapshot() : null;
+            if (tasks == null) {
+                // The journal numbers tasks by their place in the unreadable file, so replaying it
+                // would delete or mark the wrong tasks. Keep every file for recovery by hand instead,
+                // out of the way of the fresh ledger so that nothing ever compacts over them.
+                setAside(hasSnapshot ? snapshotPath : textSnapshotPath);
+                setAside(previousSnapshotPath);
+                setAside(previousJournalPath);
+                setAside(pendingJournalPath);
+                setAside(journalPath);
+                loadNotice = "Your royal ledger was damaged beyond repair, so I have started a fresh one. "
+                        + "The damaged files are kept alongside, marked " + CORRUPT_SUFFIX + ", peasant.";
+                System.err.println(loadNotice);
+                return todolist;
+            }
+            setAside(snapshotPath);
+            isRestored = true;
+            loadNotice = "Your royal ledger was damaged, so I have restored it from the copy kept at "
+                    + "the last save. The damaged file is kept alongside, marked " + CORRUPT_SUFFIX + ", peasant.";
+            System.err.println(loadNotice);
+        }
+        for (Task task : tasks) {
+            todolist.addTask(task);
+        }
 
-                try {
-                    switch (parts[0]) {
-                    case "T":
-                        if (parts.length < 3) throw new IllegalArgumentException("Corrupt data for TodoTask");
-                        Task todoTask = new TodoTask(parts[2]);
-                        if (parts[1].equals("1")) todoTask.mark();
-                        todolist.addTask(todoTask);
-                        break;
-                    case "D":
-                        if (parts.length < 4) throw new IllegalArgumentException("Corrupt data for DeadlineTask");
-                        Task deadlineTask = new DeadlineTask(parts[2], parts[3]);
-                        if (parts[1].equals("1")) deadlineTask.mark();
-                        todolist.addTask(deadlineTask);
-                        break;
-                    case "E":
-                        if (parts.length < 5) throw new IllegalArgumentException("Corrupt data for EventTask");
-                        Task eventTask = new EventTask(parts[2], parts[3], parts[4]);
-                        if (parts[1].equals("1")) eventTask.mark();
-                        todolist.addTask(eventTask);
-                        break;
-                    default:
-                        System.out.println("Skipping unknown task type in line: " + next);
-                    }
-                } catch (Exception e) {
-                    System.out.println("Skipping corrupted line: \"" + next + "\". Reason: " + e.getMessage());
-                }
+        if (isRestored) {
+            replayJournal(previousJournalPath, todolist);
+        }
+        replayJournal(pendingJournalPath, todolist);
+        replayJournal(journalPath, todolist);
+        journalBytes = sizeOf(journalPath);
+
+        if (hasPendingJournal || needsMigration || isRestored) {
+            // Either a compaction was interrupted before it committed, the ledger is still in
+            // the text format, or it was just restored. All are settled by writing a fresh
+            // binary snapshot. Only the first leaves the journal leading to it intact.
+            try {
+                writeSnapshot(todolist, hasPendingJournal && !needsMigration && !isRestored);
+            } catch (IOException e) {
+                // Every file it was loaded from is still in place, so the next load tries again.
+                System.err.println(e.getMessage());
+            }
+        }
+        if (needsMigration && Files.exists(snapshotPath)) {
+            try {
+                Files.move(textSnapshotPath, migratedTextSnapshotPath, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                System.err.println("Couldn't retire the old data file: " + e.getMessage());
             }
-        } catch (FileNotFoundException e) {
-            System.out.println("Couldn't read data file. Starting fresh, peasant!");
         }
 
         return todolist;
     }
 
     /**
-     * Writes all tasks in the given TodoList to the data file.
+     * Reads the snapshot kept by the last compaction, for when the current one is damaged.
+     *
+     * @return the tasks of the kept snapshot, or null if there is none that can be read
+     */
+    private List<Task> readPreviousSnapshot() {
+        if (!Files.exists(previousSnapshotPath)) {
+            return null;
+        }
+        try {
+            return BinarySnapshot.read(previousSnapshotPath);
+        } catch (IOException e) {
+            System.err.println("Couldn't read the kept copy either: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns a note for the user about how the ledger was loaded, such as its having been
+     * restored after damage.
+     *
+     * @return the note, or null if the ledger loaded as it should
+     */
+    public String getLoadNotice() {
+        return loadNotice;
+    }
+
+    /**
+     * Writes all tasks in the given TodoList to the data file, replacing the snapshot
+     * and discarding the journal. Returns once the snapshot is on disk.
      *
      * @param todolist the task list to be written to the data file
+     * @throws IOException if the snapshot, or a record queued before it, could not be written
+     */
+    public synchronized void writeTasks(TodoList todolist) throws IOException {
+        writeSnapshot(todolist, false);
+    }
+
+    /**
+     * Writes a new snapshot of the given TodoList and waits for it to reach the disk.
+     *
+     * @param isJournaled whether the journal leads from the current snapshot to the list
+     * @throws IOException if the snapshot, or a record queued before it, could not be written
      */
-    public static void writeTasks(TodoList todolist) {
+    private void writeSnapshot(TodoList todolist, boolean isJournaled) throws IOException {
+        long start = System.nanoTime();
+        queueCompaction(todolist, isJournaled);
+        persister.flush();
+        Metrics.WRITE_TASKS.recordSince(start);
+        Metrics.WRITE_TASKS_BYTES.add(sizeOf(snapshotPath));
+    }
+
+    /**
+     * Starts a batch. Mutations recorded from now on are not journaled one by one;
+     * they are saved together by {@link #endBatch(TodoList)}.
+     */
+    public synchronized void beginBatch() {
+        isBatching = true;
+        isBatchDirty = false;
+    }
+
+    /**
+     * Ends the current batch, saving the given TodoList with a single snapshot write
+     * if anything changed during the batch. Returns once the snapshot is on disk.
+     *
+     * @param todolist the task list the batch was applied to
+     * @throws IOException if the snapshot could not be written
+     */
+    public synchronized void endBatch(TodoList todolist) throws IOException {
+        isBatching = false;
+        if (isBatchDirty) {
+            writeTasks(todolist);
+        }
+    }
+
+    /**
+     * Blocks until every mutation recorded so far has been written to disk.
+     *
+     * @throws IOException if a mutation recorded since the last flush could not be written;
+     *     it is kept and written again by the next flush
+     */
+    public void flush() throws IOException {
+        persister.flush();
+    }
+
+    /**
+     * Writes every mutation recorded so far to disk and stops the writer thread.
+     * The storage must not be used once it is closed.
+     */
+    public synchronized void close() {
         try {
-            File dir = new File("data");
-            if (!dir.exists()) {
-                dir.mkdir();
+            persister.close();
+        } catch (IOException e) {
+            // Already reported by the writer thread, and nothing can be written once closed.
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down, and the hook has nothing left to flush.
+        }
+    }
+
+    /**
+     * Writes all tasks in the given TodoList, one per line, in the human-readable text format.
+     *
+     * @param todolist the task list to export
+     * @return the path of the exported file
+     * @throws IOException if the file cannot be written
+     */
+    public Path exportText(TodoList todolist) throws IOException {
+        Files.createDirectories(dataDirectory);
+        TodoList.Snapshot snapshot = todolist.snapshot();
+        List<String> lines = new ArrayList<>(snapshot.size());
+        for (int i = 0; i < snapshot.size(); i++) {
+            lines.add(snapshot.getTask(i).toFileFormat());
+        }
+        Files.write(exportPath, lines, StandardCharsets.UTF_8);
+        return exportPath;
+    }
+
+    /**
+     * Records the addition of a task at the end of the given TodoList.
+     *
+     * @param todolist the task list the task was added to
+     * @param task the task that was added
+     */
+    public void appendAdd(TodoList todolist, Task task) {
+        appendRecord(todolist, RECORD_ADD + SEPARATOR + task.toFileFormat());
+    }
+
+    /**
+     * Records a change to the done status of a task.
+     *
+     * @param todolist the task list containing the task
+     * @param index the zero-based index of the task
+     * @param isDone the new done status of the task
+     */
+    public void appendMark(TodoList todolist, int index, boolean isDone) {
+        appendRecord(todolist, RECORD_MARK + SEPARATOR + index + SEPARATOR + (isDone ? "1" : "0"));
+    }
+
+    /**
+     * Records the removal of a task.
+     *
+     * @param todolist the task list the task was removed from
+     * @param index the zero-based index of the removed task
+     */
+    public void appendDelete(TodoList todolist, int index) {
+        appendRecord(todolist, RECORD_DELETE + SEPARATOR + index);
+    }
+
+    /**
+     * Records a change to the done status of several tasks as a single record.
+     *
+     * @param todolist the task list containing the tasks
+     * @param selected the zero-based indexes of the tasks
+     * @param isDone the new done status of the tasks
+     */
+    public void appendMarkAll(TodoList todolist, BitSet selected, boolean isDone) {
+        appendRecord(todolist, RECORD_MARK_ALL + SEPARATOR + formatRanges(selected)
+                + SEPARATOR + (isDone ? "1" : "0"));
+    }
+
+    /**
+     * Records the deletion of several tasks as a single record.
+     *
+     * @param todolist the task list the tasks were deleted from
+     * @param selected the zero-based indexes the tasks had before the deletion
+     */
+    public void appendDeleteAll(TodoList todolist, BitSet selected) {
+        appendRecord(todolist, RECORD_DELETE_ALL + SEPARATOR + formatRanges(selected));
+    }
+
+    /**
+     * Records that the given TodoList was sorted chronologically.
+     * Sorting is deterministic, so it is replayed rather than rewritten.
+     *
+     * @param todolist the task list that was sorted
+     */
+    public void appendSort(TodoList todolist) {
+        appendRecord(todolist, RECORD_SORT);
+    }
+
+    private synchronized void appendRecord(TodoList todolist, String record) {
+        if (isBatching) {
+            isBatchDirty = true;
+            return;
+        }
+
+        persister.append(record);
+        journalBytes += record.length() + System.lineSeparator().length();
+
+        if (journalBytes >= COMPACTION_THRESHOLD_BYTES) {
+            queueCompaction(todolist, true);
+        }
+    }
+
+    /**
+     * Replays the records of a journal file onto the given TodoList.
+     */
+    private static void replayJournal(Path journal, TodoList todolist) {
+        if (!Files.exists(journal)) {
+            return;
+        }
+
+        try {
+            for (String record : Files.readAllLines(journal, StandardCharsets.UTF_8)) {
+                try {
+                    applyRecord(record, todolist);
+                } catch (Exception e) {
+                    System.err.println("Skipping corrupted journal entry: \"" + record + "\". Reason: "
+                            + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Couldn't read journal file: " + e.getMessage());
+        }
+    }
+
+    private static void applyRecord(String record, TodoList todolist) {
+        String[] parts = record.split(" \\| ", 2);
+
+        switch (parts[0]) {
+        case RECORD_ADD: {
+            Task task = parts.length < 2 ? null : MappedTaskReader.parseTask(parts[1]);
+            if (task == null) throw new IllegalArgumentException("Corrupt task in journal");
+            todolist.addTask(task);
+            break;
+        }
+        case RECORD_MARK: {
+            String[] fields = parts.length < 2 ? new String[0] : parts[1].split(" \\| ");
+            if (fields.length < 2) throw new IllegalArgumentException("Corrupt mark record");
+            int index = checkIndex(fields[0], todolist);
+            if (fields[1].equals("1")) {
+                todolist.markTask(index);
+            } else {
+                todolist.unmarkTask(index);
+            }
+            break;
+        }
+        case RECORD_DELETE: {
+            if (parts.length < 2) throw new IllegalArgumentException("Corrupt delete record");
+            todolist.deleteTask(checkIndex(parts[1], todolist));
+            break;
+        }
+        case RECORD_SORT: {
+            todolist.sortByTime();
+            break;
+        }
+        case RECORD_MARK_ALL: {
+            String[] fields = parts.length < 2 ? new String[0] : parts[1].split(" \\| ");
+            if (fields.length < 2) throw new IllegalArgumentException("Corrupt mark record");
+            todolist.markTasks(parseRanges(fields[0], todolist), fields[1].equals("1"));
+            break;
+        }
+        case RECORD_DELETE_ALL: {
+            if (parts.length < 2) throw new IllegalArgumentException("Corrupt delete record");
+            todolist.deleteTasks(parseRanges(parts[1], todolist));
+            break;
+        }
+        default:
+            throw new IllegalArgumentException("Unknown journal record");
+        }
+    }
+
+    private static int checkIndex(String field, TodoList todolist) {
+        int index = Integer.parseInt(field.trim());
+        if (index < 0 || index >= todolist.size()) {
+            throw new IllegalArgumentException("Task index " + index + " out of range");
+        }
+        return index;
+    }
+
+    /**
+     * Writes a set of indexes as comma-separated runs, such as "2,6,9-199".
+     */
+    private static String formatRanges(BitSet selected) {
+        StringBuilder ranges = new StringBuilder();
+        for (int start = selected.nextSetBit(0); start >= 0; start = selected.nextSetBit(start)) {
+            int end = selected.nextClearBit(start) - 1;
+            if (ranges.length() > 0) {
+                ranges.append(',');
+            }
+            ranges.append(start);
+            if (end > start) {
+                ranges.append('-').append(end);
+            }
+            start = end + 1;
+        }
+        return ranges.toString();
+    }
+
+    private static BitSet parseRanges(String field, TodoList todolist) {
+        BitSet selected = new BitSet();
+        for (String range : field.trim().split(",")) {
+            int dash = range.indexOf('-');
+            int start = checkIndex(dash < 0 ? range : range.substring(0, dash), todolist);
+            int end = dash < 0 ? start : checkIndex(range.substring(dash + 1), todolist);
+            if (end < start) {
+                throw new IllegalArgumentException("Task range " + range + " is reversed");
+            }
+            selected.set(start, end + 1);
+        }
+        return selected;
+    }
+
+    /**
+     * Captures the current tasks along with their done status from a single snapshot,
+     * so that the capture is consistent even while the list is changing.
+     */
+    private static List<Task> captureTasks(TodoList todolist, BitSet done) {
+        TodoList.Snapshot snapshot = todolist.snapshot();
+        List<Task> tasks = new ArrayList<>(snapshot.size());
+        for (int i = 0; i < snapshot.size(); i++) {
+            Task task = snapshot.getTask(i);
+            tasks.add(task);
+            done.set(i, task.isDone());
+        }
+        return tasks;
+    }
+
+    /**
+     * Moves the live journal aside, so that new records can be appended while the
+     * captured state is compacted.
+     */
+    private void rotateJournal() throws IOException {
+        if (Files.exists(journalPath)) {
+            if (Files.exists(pendingJournalPath)) {
+                // An earlier compaction failed, so keep its records ahead of the new ones.
+                Files.write(pendingJournalPath, Files.readAllBytes(journalPath), StandardOpenOption.APPEND);
+                Files.delete(journalPath);
+            } else {
+                Files.move(journalPath, pendingJournalPath, StandardCopyOption.ATOMIC_MOVE);
             }
-            FileWriter fw = new FileWriter("data/duchess.txt");
-            for (int i = 0; i < todolist.size(); i++) {
-                Task task = todolist.getTask(i);
-                fw.write(task.toFileFormat() + System.lineSeparator());
+        }
+    }
+
+    /**
+     * Captures the given TodoList and queues a compaction of it behind the records
+     * already queued. The capture happens on the calling thread, so it reflects exactly
+     * the mutations recorded so far.
+     *
+     * @param isJournaled whether every change since the current snapshot was journaled,
+     *     so that the snapshot and the journal can be kept as the way back to the list
+     */
+    private void queueCompaction(TodoList todolist, boolean isJournaled) {
+        BitSet done = new BitSet();
+        List<Task> tasks = captureTasks(todolist, done);
+        journalBytes = 0;
+
+        persister.compact(() -> {
+            Files.createDirectories(dataDirectory);
+            rotateJournal();
+            compact(tasks, done, isJournaled);
+        });
+    }
+
+    /**
+     * Writes a new snapshot and retires the pending journal.
+     * Moving the finished snapshot to duchess.bin.next is the commit point: once it exists,
+     * the pending journal is already contained in it and {@link #recoverCompaction()} can
+     * complete the swap after a crash. The snapshot is forced to disk before the move, and
+     * the move before the pending journal is deleted, so that a power loss never leaves a
+     * torn snapshot in place of the only copy of those records.
+     */
+    private void compact(List<Task> tasks, BitSet done, boolean isJournaled) throws IOException {
+        BinarySnapshot.write(tempSnapshotPath, tasks, done);
+        Files.move(tempSnapshotPath, nextSnapshotPath,
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(dataDirectory);
+        finishCompaction(isJournaled);
+    }
+
+    /**
+     * Swaps the committed snapshot in, keeping a way back to it should it ever be damaged.
+     *
+     * When the pending journal leads from the old snapshot to the new one, the two are kept
+     * as the previous snapshot and journal. Otherwise, as after a batch or a crash, the new
+     * snapshot is copied instead. Either way the kept pair is cleared before the new one is
+     * put in place, so that a crash partway leaves no pair rather than a mismatched one.
+     */
+    private void finishCompaction(boolean isJournaled) throws IOException {
+        Files.deleteIfExists(previousJournalPath);
+        if (isJournaled && Files.exists(snapshotPath)) {
+            Files.move(snapshotPath, previousSnapshotPath, StandardCopyOption.REPLACE_EXISTING);
+            if (Files.exists(pendingJournalPath)) {
+                Files.move(pendingJournalPath, previousJournalPath);
             }
-            fw.close();
+        } else {
+            Files.deleteIfExists(previousSnapshotPath);
+            Files.deleteIfExists(pendingJournalPath);
+        }
+        Files.move(nextSnapshotPath, snapshotPath,
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(dataDirectory);
+
+        if (!Files.exists(previousSnapshotPath)) {
+            copyForced(snapshotPath, previousSnapshotPath);
+            forceDirectory(dataDirectory);
+        }
+    }
+
+    /**
+     * Copies a file and forces the copy to disk.
+     */
+    private static void copyForced(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            for (long position = 0; position < size; ) {
+                position += in.transferTo(position, size - position, out);
+            }
+            out.force(true);
+        }
+    }
+
+    /**
+     * Forces the entries of a directory to disk, so that files created or renamed in it
+     * survive a power loss. Some platforms cannot open a directory at all; there the
+     * file system is left to order the renames itself.
+     *
+     * @param directory the directory to force
+     */
+    static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Windows refuses to open directories, and orders renames on its own.
+        }
+    }
+
+    /**
+     * Completes or discards a compaction that was interrupted by a crash.
+     */
+    private void recoverCompaction() {
+        try {
+            Files.deleteIfExists(tempSnapshotPath);
+            if (Files.exists(nextSnapshotPath)) {
+                finishCompaction(false);
+            }
+        } catch (IOException e) {
+            System.err.println("Couldn't recover your royal ledger: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Renames a file by adding {@link #CORRUPT_SUFFIX}, plus a number if that name is taken,
+     * so that no earlier damaged file is overwritten.
+     *
+     * @throws UncheckedIOException if the file cannot be renamed, since the fresh ledger
+     *     would otherwise be saved over it
+     */
+    private static void setAside(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        Path target = path.resolveSibling(path.getFileName() + CORRUPT_SUFFIX);
+        for (int i = 1; Files.exists(target); i++) {
+            target = path.resolveSibling(path.getFileName() + CORRUPT_SUFFIX + "." + i);
+        }
+        try {
+            Files.move(path, target);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't set aside " + path, e);
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
         } catch (IOException e) {
-                System.out.println("Couldn't save your royal ledger: " + e.getMessage());
+            return 0;
         }
     }
 }
@@ -0,0 +1,284 @@
+package duchess.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import duchess.task.DeadlineTask;
+import duchess.task.EventTask;
+import duchess.task.Task;
+import duchess.task.TodoTask;
+
+/**
+ * Reads the pipe-delimited data file by memory-mapping it and scanning the bytes directly.
+ * Fields are located by their fixed positions instead of splitting each line with a regex,
+ * and only the description is decoded into a String.
+ * Large files are split at line boundaries and parsed in parallel on the common fork-join pool.
+ */
+class MappedTaskReader {
+    private static final int MAX_WINDOW = 1 << 30;
+    /** Ranges smaller than this are parsed on the calling thread. */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private static final byte NEWLINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    /** Length of the "T | 0 | " prefix shared by every task type. */
+    private static final int PREFIX_LENGTH = 8;
+    /** Length of " | yyyy-MM-dd". */
+    private static final int DATE_FIELD_LENGTH = 13;
+    /** Length of " | yyyy-MM-dd HHmm". */
+    private static final int DATE_TIME_FIELD_LENGTH = 18;
+
+    /**
+     * Reads every task in the given data file.
+     * Lines that cannot be parsed are reported and skipped.
+     *
+     * @param path the data file to read
+     * @return the tasks in file order
+     * @throws IOException if the file cannot be mapped
+     */
+    static List<Task> read(Path path) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+
+            while (position < size) {
+                long length = Math.min(MAX_WINDOW, size - position);
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int end = (int) length;
+
+                if (position + length < size) {
+                    // Only parse whole lines; the partial last line is picked up by the next window.
+                    end = lastIndexOf(buffer, NEWLINE, end) + 1;
+                    if (end == 0) {
+                        throw new IOException("Line longer than " + MAX_WINDOW + " bytes at offset " + position);
+                    }
+                }
+
+                tasks.addAll(ForkJoinPool.commonPool().invoke(new ChunkParser(buffer, 0, end)));
+                position += end;
+            }
+        }
+
+        return tasks;
+    }
+
+    /**
+     * Parses the lines in buffer[from, to) and appends the resulting tasks to the given list.
+     * Only absolute reads are used, so one buffer may be shared by several callers.
+     */
+    static void parseRange(ByteBuffer buffer, int from, int to, List<Task> out) {
+        byte[] scratch = new byte[256];
+        int lineStart = from;
+
+        while (lineStart < to) {
+            int lineEnd = indexOf(buffer, NEWLINE, lineStart, to);
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == CARRIAGE_RETURN) {
+                lineEnd--;
+            }
+
+            if (lineEnd > lineStart) {
+                try {
+                    Task task = parseLine(buffer, lineStart, lineEnd, scratch);
+                    if (task == null) {
+                        System.err.println("Skipping unknown task type in line: "
+                                + decode(buffer, lineStart, lineEnd));
+                    } else {
+                        out.add(task);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Skipping corrupted line: \"" + decode(buffer, lineStart, lineEnd)
+                            + "\". Reason: " + e.getMessage());
+                }
+            }
+
+            lineStart = next;
+        }
+    }
+
+    /**
+     * Parses a single line in the data file format.
+     *
+     * @param line a line in the format produced by {@link Task#toFileFormat()}
+     * @return the parsed task, or null if the task type is unknown
+     * @throws IllegalArgumentException if the line is corrupted
+     */
+    static Task parseTask(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("Empty line");
+        }
+        return parseLine(ByteBuffer.wrap(bytes), 0, bytes.length, new byte[0]);
+    }
+
+    private static Task parseLine(ByteBuffer buffer, int start, int end, byte[] scratch) {
+        byte type = buffer.get(start);
+        if ((type != 'T' && type != 'D' && type != 'E')
+                || (end - start > 1 && !isSeparator(buffer, start + 1, end))) {
+            return null;
+        }
+
+        // The flag is checked once the fields are, so that short lines fail as before.
+        boolean isDone = end - start > 4 && buffer.get(start + 4) == '1';
+        Task task;
+        switch (type) {
+        case 'T': {
+            if (end - start <= PREFIX_LENGTH) throw new IllegalArgumentException("Corrupt data for TodoTask");
+            task = new TodoTask(description(buffer, start + PREFIX_LENGTH, end, scratch), isDone);
+            break;
+        }
+        case 'D': {
+            int dateStart = end - DATE_FIELD_LENGTH;
+            if (dateStart < start + PREFIX_LENGTH || !isSeparator(buffer, dateStart, end)) {
+                throw new IllegalArgumentException("Corrupt data for DeadlineTask");
+            }
+            LocalDate deadline = parseDate(buffer, dateStart + 3);
+            task = new DeadlineTask(description(buffer, start + PREFIX_LENGTH, dateStart, scratch), deadline,
+                    isDone);
+            break;
+        }
+        default: {
+            int endStart = end - DATE_TIME_FIELD_LENGTH;
+            int startStart = endStart - DATE_TIME_FIELD_LENGTH;
+            if (startStart < start + PREFIX_LENGTH
+                    || !isSeparator(buffer, startStart, end) || !isSeparator(buffer, endStart, end)) {
+                throw new IllegalArgumentException("Corrupt data for EventTask");
+            }
+            LocalDateTime from = parseDateTime(buffer, startStart + 3);
+            LocalDateTime to = parseDateTime(buffer, endStart + 3);
+            task = new EventTask(description(buffer, start + PREFIX_LENGTH, startStart, scratch), from, to,
+                    isDone);
+            break;
+        }
+        }
+
+        if (!isSeparator(buffer, start + 5, end)) {
+            throw new IllegalArgumentException("Corrupt done flag");
+        }
+        return task;
+    }
+
+    private static String description(ByteBuffer buffer, int from, int to, byte[] scratch) {
+        int length = to - from;
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(from, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /** Parses yyyy-MM-dd starting at the given offset. */
+    private static LocalDate parseDate(ByteBuffer buffer, int offset) {
+        int year = digits(buffer, offset, 4);
+        expect(buffer, offset + 4, '-');
+        int month = digits(buffer, offset + 5, 2);
+        expect(buffer, offset + 7, '-');
+        int day = digits(buffer, offset + 8, 2);
+        return LocalDate.of(year, month, day);
+    }
+
+    /** Parses yyyy-MM-dd HHmm starting at the given offset. */
+    private static LocalDateTime parseDateTime(ByteBuffer buffer, int offset) {
+        LocalDate date = parseDate(buffer, offset);
+        expect(buffer, offset + 10, ' ');
+        int hour = digits(buffer, offset + 11, 2);
+        int minute = digits(buffer, offset + 13, 2);
+        return date.atTime(hour, minute);
+    }
+
+    private static int digits(ByteBuffer buffer, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Expected a digit at column " + i);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void expect(ByteBuffer buffer, int offset, char expected) {
+        if (buffer.get(offset) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at column " + offset);
+        }
+    }
+
+    /** Returns whether " | " starts at the given offset and fits before end. */
+    private static boolean isSeparator(ByteBuffer buffer, int offset, int end) {
+        return offset + 3 <= end
+                && buffer.get(offset) == ' ' && buffer.get(offset + 1) == '|' && buffer.get(offset + 2) == ' ';
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, byte value, int to) {
+        for (int i = to - 1; i >= 0; i--) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a range of whole lines, halving it at a line boundary until it is small enough
+     * to parse directly. Results are joined left to right so file order is preserved.
+     */
+    private static class ChunkParser extends RecursiveTask<List<Task>> {
+        private static final long serialVersionUID = 1L;
+
+        /** The parser is never serialized, and a mapped buffer cannot be. */
+        private final transient ByteBuffer buffer;
+        private final int from;
+        private final int to;
+
+        ChunkParser(ByteBuffer buffer, int from, int to) {
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Task> compute() {
+            if (to - from > CHUNK_SIZE) {
+                int split = indexOf(buffer, NEWLINE, from + (to - from) / 2, to) + 1;
+                if (split < to) {
+                    ChunkParser right = new ChunkParser(buffer, split, to);
+                    right.fork();
+                    List<Task> tasks = new ChunkParser(buffer, from, split).compute();
+                    tasks.addAll(right.join());
+                    return tasks;
+                }
+            }
+
+            List<Task> tasks = new ArrayList<>();
+            parseRange(buffer, from, to, tasks);
+            return tasks;
+        }
+    }
+}
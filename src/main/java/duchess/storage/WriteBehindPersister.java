@@ -0,0 +1,281 @@
+package duchess.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import duchess.metrics.Metrics;
+
+/**
+ * Appends journal records on a dedicated background thread.
+ *
+ * Callers only enqueue work, so mutations never wait on the disk. The writer thread drains
+ * everything that has queued up since its last write and appends it with a single write,
+ * which collapses bursts of mutations into one flush. Compactions are queued in the same
+ * stream so that they see exactly the records that came before them.
+ *
+ * Records that fail to be written are kept and written again ahead of newer ones, and the
+ * failure is reported to the next {@link #flush()}, so that no caller is told its records
+ * are on disk when they are not.
+ */
+class WriteBehindPersister {
+    /**
+     * Rewrites the snapshot from state captured when the compaction was queued.
+     */
+    interface Compaction {
+        void run() throws IOException;
+    }
+
+    private final Path journalPath;
+    private final LinkedBlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    /** Entries queued but not yet taken by a writer thread, across every persister. */
+    private static final AtomicLong QUEUE_DEPTH = new AtomicLong();
+    private static final AtomicLong MAX_QUEUE_DEPTH = new AtomicLong();
+
+    static {
+        Metrics.gauge("storage.journal.queueDepth", QUEUE_DEPTH::get);
+        Metrics.gauge("storage.journal.maxQueueDepth", MAX_QUEUE_DEPTH::get);
+    }
+
+    /** Set by {@link #close()}, after which nothing more is queued. Guarded by this persister. */
+    private boolean isClosed;
+
+    // Only touched by the writer thread.
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private int pendingRecords;
+    /** Whether the journal's directory entry is on disk. */
+    private boolean isJournalEntryForced;
+    private IOException writeFailure;
+    private IOException compactionFailure;
+
+    /**
+     * Creates a persister appending to the given journal and starts its writer thread.
+     *
+     * @param journalPath the journal file to append records to
+     */
+    WriteBehindPersister(Path journalPath) {
+        this.journalPath = journalPath;
+
+        this.writer = new Thread(this::run, "duchess-persister");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues one journal record to be appended.
+     *
+     * @param record the record, without a line separator
+     * @throws IllegalStateException if the persister is closed
+     */
+    void append(String record) {
+        enqueue(record);
+    }
+
+    /**
+     * Queues a compaction to run after every record queued before it has been written.
+     *
+     * @param compaction the compaction to run on the writer thread
+     * @throws IllegalStateException if the persister is closed
+     */
+    void compact(Compaction compaction) {
+        enqueue(compaction);
+    }
+
+    /**
+     * Blocks until everything queued so far has been written and forced to disk.
+     * Returns at once if the persister is closed, since closing wrote everything.
+     *
+     * @throws IOException if a record or compaction failed since the last flush
+     */
+    void flush() throws IOException {
+        Barrier barrier = new Barrier(false);
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+            enqueue(barrier);
+        }
+        barrier.await();
+    }
+
+    /**
+     * Writes everything queued so far, then stops the writer thread.
+     * Nothing may be queued once the persister is closed, and closing again does nothing.
+     *
+     * @throws IOException if a record or compaction failed since the last flush
+     */
+    void close() throws IOException {
+        Barrier stop = new Barrier(true);
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+            enqueue(stop);
+            isClosed = true;
+        }
+        stop.await();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void enqueue(Object entry) {
+        if (isClosed) {
+            throw new IllegalStateException("The journal is closed");
+        }
+        queue.add(entry);
+        MAX_QUEUE_DEPTH.accumulateAndGet(QUEUE_DEPTH.incrementAndGet(), Math::max);
+    }
+
+    private void run() {
+        List<Object> batch = new ArrayList<>();
+
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            QUEUE_DEPTH.addAndGet(-batch.size());
+
+            for (Object entry : batch) {
+                if (entry instanceof String) {
+                    byte[] bytes = (entry + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+                    pending.write(bytes, 0, bytes.length);
+                    pendingRecords++;
+                    continue;
+                }
+
+                writePending(entry instanceof Barrier);
+                if (entry instanceof Compaction) {
+                    try {
+                        ((Compaction) entry).run();
+                        // The new snapshot holds every record queued before it, written or not.
+                        pending.reset();
+                        pendingRecords = 0;
+                        writeFailure = null;
+                        compactionFailure = null;
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("Couldn't compact your royal ledger: " + e.getMessage());
+                        compactionFailure = e instanceof IOException ? (IOException) e : new IOException(e);
+                    }
+                    continue;
+                }
+
+                Barrier barrier = (Barrier) entry;
+                barrier.complete(writeFailure != null ? writeFailure : compactionFailure);
+                compactionFailure = null;
+                if (barrier.isStop) {
+                    return;
+                }
+            }
+
+            writePending(false);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes the pending records. If that fails they are kept, so that the next write tries
+     * them again ahead of newer ones, and the failure is kept for the next barrier.
+     */
+    private void writePending(boolean isForced) {
+        try {
+            write(isForced);
+            pending.reset();
+            pendingRecords = 0;
+            writeFailure = null;
+        } catch (IOException e) {
+            System.err.println("Couldn't save your royal ledger: " + e.getMessage());
+            writeFailure = e;
+        }
+    }
+
+    private void write(boolean isForced) throws IOException {
+        if (pendingRecords == 0 && !isForced) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Files.createDirectories(journalPath.getParent());
+        if (!Files.exists(journalPath)) {
+            isJournalEntryForced = false;
+        }
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long size = channel.size();
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (isForced) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                // Drop whatever part of the records made it, so that writing them again does not repeat it.
+                try {
+                    channel.truncate(size);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+        }
+        if (isForced && !isJournalEntryForced) {
+            // A new journal is only found again once its directory entry is on disk too.
+            FileStorage.forceDirectory(journalPath.getParent());
+            isJournalEntryForced = true;
+        }
+
+        Metrics.JOURNAL_WRITE.recordSince(start);
+        Metrics.JOURNAL_WRITE_RECORDS.add(pendingRecords);
+    }
+
+    /**
+     * Marks a point in the queue that {@link #flush()} or {@link #close()} waits for, and
+     * hands back any failure since the last one.
+     */
+    private static final class Barrier {
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final boolean isStop;
+
+        Barrier(boolean isStop) {
+            this.isStop = isStop;
+        }
+
+        void complete(IOException failure) {
+            if (failure == null) {
+                done.complete(null);
+            } else {
+                done.completeExceptionally(failure);
+            }
+        }
+
+        void await() throws IOException {
+            try {
+                done.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Couldn't save your royal ledger: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -16,10 +16,24 @@ public class DeadlineTask extends Task {
         this.deadline = LocalDate.parse(deadline);
     }
 
+    public DeadlineTask(String description, LocalDate deadline) {
+        this(description, deadline, false);
+    }
+
+    public DeadlineTask(String description, LocalDate deadline, boolean isDone) {
+        super(description, isDone);
+        this.deadline = deadline;
+    }
+
     public LocalDate getDeadline() {
         return this.deadline;
     }
 
+    @Override
+    protected Task copy(boolean isDone) {
+        return new DeadlineTask(super.getDescription(), this.deadline, isDone);
+    }
+
     /**
      * Returns a string representation of this DeadlineTask to save to data file.
      * Format: D | 0/1 | description | deadline (yyyy-MM-dd format)
@@ -34,12 +48,12 @@ public class DeadlineTask extends Task {
     }
 
     /**
-     * Returns a user-friendly string representation of the task to display in the todolist.
+     * Formats the user-friendly string representation of the task to display in the todolist.
      *
      * @return formatted string for display in list
      */
     @Override
-    public String toString() {
-        return "[D]" + super.toString() + " (by: " + this.deadline.format(PRINT_FORMAT) + ")";
+    protected String formatDisplayLine() {
+        return "[D]" + super.formatDisplayLine() + " (by: " + this.deadline.format(PRINT_FORMAT) + ")";
     }
 }
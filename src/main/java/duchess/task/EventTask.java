@@ -18,10 +18,29 @@ public class EventTask extends Task {
         this.end = LocalDateTime.parse(end, INPUT_FORMAT);
     }
 
+    public EventTask(String description, LocalDateTime start, LocalDateTime end) {
+        this(description, start, end, false);
+    }
+
+    public EventTask(String description, LocalDateTime start, LocalDateTime end, boolean isDone) {
+        super(description, isDone);
+        this.start = start;
+        this.end = end;
+    }
+
     public LocalDateTime getStart() {
         return this.start;
     }
 
+    public LocalDateTime getEnd() {
+        return this.end;
+    }
+
+    @Override
+    protected Task copy(boolean isDone) {
+        return new EventTask(super.getDescription(), this.start, this.end, isDone);
+    }
+
     /**
      * Returns a string representation of this EventTask to save to data file.
      * Format: E | 0/1 | description | start time | end time
@@ -36,13 +55,13 @@ public class EventTask extends Task {
     }
 
     /**
-     * Returns a user-friendly string representation of the task to display in the todolist.
+     * Formats the user-friendly string representation of the task to display in the todolist.
      *
      * @return formatted string for display in list
      */
     @Override
-    public String toString() {
-        return "[E]" + super.toString() + " (from: " + this.start.format(PRINT_FORMAT)
+    protected String formatDisplayLine() {
+        return "[E]" + super.formatDisplayLine() + " (from: " + this.start.format(PRINT_FORMAT)
                 + " to: " + this.end.format(PRINT_FORMAT) + ")";
     }
 }
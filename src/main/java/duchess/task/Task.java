@@ -3,10 +3,15 @@ package duchess.task;
 /**
  * Represents one task for the user to complete.
  * Can be marked as done or not done.
+ *
+ * Once a task is in a todolist it is treated as immutable: the list marks a task by replacing
+ * it with a copy from {@link #withDone(boolean)}, so that other threads can keep reading the
+ * old version safely.
  */
 public abstract class Task {
-    private boolean isDone;
+    private final boolean isDone;
     private final String description;
+    private String displayLine;
 
     /**
      * Creates a new task with the given description.
@@ -15,7 +20,18 @@ public abstract class Task {
      * @param description description of the task
      */
     public Task(String description) {
-        this.isDone = false;
+        this(description, false);
+    }
+
+    /**
+     * Creates a new task with the given description and done status, such as one read back
+     * from the data file.
+     *
+     * @param description description of the task
+     * @param isDone whether the task is done
+     */
+    public Task(String description, boolean isDone) {
+        this.isDone = isDone;
         this.description = description;
     }
 
@@ -28,18 +44,22 @@ public abstract class Task {
     }
 
     /**
-     * Marks this task as done.
+     * Returns this task with the given done status, copying it if the status differs.
+     *
+     * @param isDone whether the returned task should be done
+     * @return this task if it already has that status, otherwise a changed copy
      */
-    public void mark() {
-        this.isDone = true;
+    public Task withDone(boolean isDone) {
+        return this.isDone == isDone ? this : copy(isDone);
     }
 
     /**
-     * Marks this task as not done.
+     * Returns a new task with the same details as this one and the given done status.
+     *
+     * @param isDone whether the copy is done
+     * @return the copy
      */
-    public void unmark() {
-        this.isDone = false;
-    }
+    protected abstract Task copy(boolean isDone);
 
     /**
      * Returns mark depending on whether task is done or not.
@@ -58,11 +78,26 @@ public abstract class Task {
 
     /**
      * Returns a user-friendly string representation of the task to display in the todolist.
+     * The string is formatted once and cached, since the task never changes.
      *
      * @return formatted string for display in list
      */
     @Override
     public String toString() {
+        String line = displayLine;
+        if (line == null) {
+            line = formatDisplayLine();
+            displayLine = line;
+        }
+        return line;
+    }
+
+    /**
+     * Formats the user-friendly string representation of the task.
+     *
+     * @return formatted string for display in list
+     */
+    protected String formatDisplayLine() {
         return "[" + getMark() + "] " + this.description;
     }
 }
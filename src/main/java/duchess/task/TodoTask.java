@@ -8,6 +8,15 @@ public class TodoTask extends Task {
         super(description);
     }
 
+    public TodoTask(String description, boolean isDone) {
+        super(description, isDone);
+    }
+
+    @Override
+    protected Task copy(boolean isDone) {
+        return new TodoTask(super.getDescription(), isDone);
+    }
+
     /**
      * Returns a string representation of this TodoTask to save to data file.
      * Format: T | 0/1 | description
@@ -21,12 +30,12 @@ public class TodoTask extends Task {
     }
 
     /**
-     * Returns a user-friendly string representation of the task to display in the todolist.
+     * Formats the user-friendly string representation of the task to display in the todolist.
      *
      * @return formatted string for display in list
      */
     @Override
-    public String toString() {
-        return "[T]" + super.toString();
+    protected String formatDisplayLine() {
+        return "[T]" + super.formatDisplayLine();
     }
 }
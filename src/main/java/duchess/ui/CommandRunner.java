@@ -0,0 +1,72 @@
+package duchess.ui;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+import duchess.Duchess;
+import duchess.command.Response;
+
+/**
+ * Runs commands on a single background thread so that the window stays responsive while
+ * a slow command runs.
+ *
+ * Commands run one at a time in the order they were submitted, and their replies are
+ * handed back to the FX thread in that same order.
+ * At most MAX_PENDING commands may be waiting; more are refused until the backlog drains.
+ */
+class CommandRunner {
+    private static final int MAX_PENDING = 32;
+
+    private final Duchess duchess;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Creates a runner for the given Duchess and starts its thread.
+     *
+     * @param duchess the Duchess to run commands on
+     */
+    CommandRunner(Duchess duchess) {
+        this.duchess = duchess;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING), runnable -> {
+                    Thread thread = new Thread(runnable, "duchess-commands");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queues a command to run after every command submitted before it.
+     *
+     * @param input the command typed by the user
+     * @param onReply called on the FX thread with Duchess's reply
+     * @return false if too many commands are already waiting and this one was refused
+     */
+    boolean submit(String input, Consumer<Response> onReply) {
+        try {
+            executor.execute(() -> run(input, onReply));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void run(String input, Consumer<Response> onReply) {
+        Response response;
+        try {
+            response = duchess.respond(input);
+        } catch (RuntimeException e) {
+            // Reply anyway, or the user would be left waiting on a reply that never comes.
+            response = new Response(Response.Type.DEFAULT,
+                    "Something has gone terribly wrong in the royal court: " + e.getMessage());
+        }
+
+        Response reply = response;
+        Platform.runLater(() -> onReply.accept(reply));
+    }
+}
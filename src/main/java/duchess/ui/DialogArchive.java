@@ -0,0 +1,75 @@
+package duchess.ui;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import duchess.command.Response;
+
+/**
+ * Keeps the messages that have scrolled out of the conversation view, packed as UTF-8 text in
+ * one shared array with a byte saying who sent each, rather than as a message object apiece.
+ *
+ * Messages are archived oldest first and restored newest first, so the archive is a stack and
+ * taking messages back only shortens it.
+ */
+class DialogArchive {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final byte FROM_USER = -1;
+    private static final Response.Type[] TYPES = Response.Type.values();
+
+    private byte[] text = new byte[INITIAL_CAPACITY * 32];
+    private int textLength;
+    private int[] ends = new int[INITIAL_CAPACITY];
+    private byte[] senders = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Archives a message, which becomes the newest in the archive.
+     *
+     * @param message the message leaving the view
+     */
+    void add(DialogMessage message) {
+        byte[] bytes = message.getText().getBytes(StandardCharsets.UTF_8);
+        if (textLength + bytes.length > text.length) {
+            text = Arrays.copyOf(text, Math.max(textLength + bytes.length, text.length * 2));
+        }
+        if (size == ends.length) {
+            ends = Arrays.copyOf(ends, size + (size >> 1));
+            senders = Arrays.copyOf(senders, ends.length);
+        }
+
+        System.arraycopy(bytes, 0, text, textLength, bytes.length);
+        textLength += bytes.length;
+        ends[size] = textLength;
+        senders[size] = message.isUser() ? FROM_USER : (byte) message.getCommandType().ordinal();
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Takes the newest messages out of the archive.
+     *
+     * @param count the most messages to take
+     * @return the messages taken, oldest first
+     */
+    List<DialogMessage> takeNewest(int count) {
+        int first = Math.max(0, size - count);
+        List<DialogMessage> taken = new ArrayList<>(size - first);
+        for (int i = first; i < size; i++) {
+            int start = i == 0 ? 0 : ends[i - 1];
+            String messageText = new String(text, start, ends[i] - start, StandardCharsets.UTF_8);
+            taken.add(senders[i] == FROM_USER
+                    ? DialogMessage.fromUser(messageText)
+                    : DialogMessage.fromDuchess(messageText, TYPES[senders[i]]));
+        }
+
+        textLength = first == 0 ? 0 : ends[first - 1];
+        size = first;
+        return taken;
+    }
+}
@@ -1,63 +1,120 @@
 package duchess.ui;
 
-import java.io.IOException;
 import java.util.Collections;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
+
+import duchess.command.Response;
+import duchess.metrics.Metrics;
 
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
  * and a label containing text from the speaker.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
-
-    private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
+    private static final String[] MESSAGE_STYLES = {"reply-label", "add-label", "marked-label", "delete-label"};
+    private static final String STYLESHEET =
+            MainWindow.class.getResource("/css/dialog-box.css").toExternalForm();
+    private static final double PREF_WIDTH = 400.0;
+    private static final double PICTURE_SIZE = 99.0;
+    private static final double LABEL_PADDING = 6.0;
+    private static final double LABEL_MARGIN = 7.0;
+    private static final double BOX_PADDING_VERTICAL = 15.0;
+    private static final double BOX_PADDING_HORIZONTAL = 5.0;
+
+    private final Label dialog;
+    private final ImageView displayPicture;
+
+    private boolean isFlipped;
+
+    /**
+     * Creates an empty dialog box, to be filled with one message after another.
+     * The nodes are built directly rather than loaded from FXML, since parsing the
+     * layout again for every message was the main cost of showing one.
+     */
+    DialogBox() {
+        long start = System.nanoTime();
+        dialog = new Label();
+        dialog.setId("dialog");
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+        dialog.setWrapText(true);
+        dialog.setPadding(new Insets(LABEL_PADDING));
+        HBox.setMargin(dialog, new Insets(0, LABEL_MARGIN, 0, LABEL_MARGIN));
+
+        displayPicture = new ImageView();
+        displayPicture.setId("displayPicture");
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
+
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPrefWidth(PREF_WIDTH);
+        setPadding(new Insets(BOX_PADDING_VERTICAL, BOX_PADDING_HORIZONTAL,
+                BOX_PADDING_VERTICAL, BOX_PADDING_HORIZONTAL));
+        getStylesheets().add(STYLESHEET);
+        getChildren().addAll(dialog, displayPicture);
+        Metrics.DIALOG_BOX.recordSince(start);
+    }
+
+    /**
+     * Shows a message from the user, with the image on the right.
+     */
+    void showUserMessage(String text, Image img) {
+        showMessage(text, img);
+        if (isFlipped) {
+            flip();
+        }
+    }
+
+    /**
+     * Shows a reply from Duchess, with the image on the left and styled by the command it answers.
+     */
+    void showDuchessMessage(String text, Image img, Response.Type commandType) {
+        showMessage(text, img);
+        if (!isFlipped) {
+            flip();
         }
+        dialog.getStyleClass().add("reply-label");
+        changeDialogStyle(commandType);
+    }
 
+    private void showMessage(String text, Image img) {
         dialog.setText(text);
         displayPicture.setImage(img);
+        dialog.getStyleClass().removeAll(MESSAGE_STYLES);
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Swaps the sides of the ImageView and the text.
      */
     private void flip() {
         ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
         Collections.reverse(tmp);
         getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
-        dialog.getStyleClass().add("reply-label");
+        isFlipped = !isFlipped;
+        setAlignment(isFlipped ? Pos.TOP_LEFT : Pos.TOP_RIGHT);
     }
 
-    private void changeDialogStyle(String commandType) {
+    private void changeDialogStyle(Response.Type commandType) {
         switch(commandType) {
-        case "ADD":
+        case ADD:
             dialog.getStyleClass().add("add-label");
             break;
-        case "MARK":
+        case MARK:
             dialog.getStyleClass().add("marked-label");
             break;
-        case "DELETE":
+        case DELETE:
             dialog.getStyleClass().add("delete-label");
             break;
         default:
@@ -66,13 +123,14 @@ public class DialogBox extends HBox {
     }
 
     public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img);
+        var db = new DialogBox();
+        db.showUserMessage(text, img);
+        return db;
     }
 
-    public static DialogBox getDuchessDialog(String text, Image img, String commandType) {
-        var db = new DialogBox(text, img);
-        db.flip();
-        db.changeDialogStyle(commandType);
+    public static DialogBox getDuchessDialog(String text, Image img, Response.Type commandType) {
+        var db = new DialogBox();
+        db.showDuchessMessage(text, img, commandType);
         return db;
     }
 }
@@ -0,0 +1,46 @@
+package duchess.ui;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+
+/**
+ * A list cell that shows a message in a dialog box.
+ *
+ * The list view only creates enough cells to fill the window and moves them between messages
+ * as the conversation scrolls, so each cell builds one dialog box and refills it every time.
+ */
+class DialogCell extends ListCell<DialogMessage> {
+    /** Room left for the vertical scroll bar, so long messages wrap instead of scrolling sideways. */
+    private static final double SCROLL_BAR_ALLOWANCE = 20.0;
+
+    private final DialogBox dialogBox = new DialogBox();
+    private final Image userImage;
+    private final Image duchessImage;
+
+    DialogCell(ListView<DialogMessage> listView, Image userImage, Image duchessImage) {
+        this.userImage = userImage;
+        this.duchessImage = duchessImage;
+
+        // Let the list view decide the width, so the label wraps to fit the window.
+        setPrefWidth(0);
+        dialogBox.prefWidthProperty().bind(listView.widthProperty().subtract(SCROLL_BAR_ALLOWANCE));
+    }
+
+    @Override
+    protected void updateItem(DialogMessage message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            return;
+        }
+
+        if (message.isUser()) {
+            dialogBox.showUserMessage(message.getText(), userImage);
+        } else {
+            dialogBox.showDuchessMessage(message.getText(), duchessImage, message.getCommandType());
+        }
+        setGraphic(dialogBox);
+    }
+}
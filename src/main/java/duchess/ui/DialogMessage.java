@@ -0,0 +1,41 @@
+package duchess.ui;
+
+import duchess.command.Response;
+
+/**
+ * Represents one message in the conversation as plain data.
+ *
+ * Only the messages scrolled into view are turned into dialog boxes, so the rest of the
+ * history costs no more than the text of each message.
+ */
+class DialogMessage {
+    private final String text;
+    private final boolean isUser;
+    private final Response.Type commandType;
+
+    private DialogMessage(String text, boolean isUser, Response.Type commandType) {
+        this.text = text;
+        this.isUser = isUser;
+        this.commandType = commandType;
+    }
+
+    static DialogMessage fromUser(String text) {
+        return new DialogMessage(text, true, Response.Type.DEFAULT);
+    }
+
+    static DialogMessage fromDuchess(String text, Response.Type commandType) {
+        return new DialogMessage(text, false, commandType);
+    }
+
+    String getText() {
+        return text;
+    }
+
+    boolean isUser() {
+        return isUser;
+    }
+
+    Response.Type getCommandType() {
+        return commandType;
+    }
+}
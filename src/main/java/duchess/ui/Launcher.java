@@ -2,11 +2,23 @@ package duchess.ui;
 
 import javafx.application.Application;
 
+import duchess.BatchRunner;
+import duchess.server.LedgerServer;
+
 /**
  * A launcher class to workaround classpath issues.
  */
 public class Launcher {
     public static void main(String[] args) {
+        if (BatchRunner.isBatchMode(args)) {
+            System.exit(BatchRunner.run(args));
+        }
+        if (LedgerServer.isServerMode(args)) {
+            if (!LedgerServer.start(args)) {
+                System.exit(1);
+            }
+            return;
+        }
         Application.launch(Main.class, args);
     }
 }
@@ -1,76 +1,139 @@
 package duchess.ui;
 
+import java.util.List;
+
 import javafx.animation.PauseTransition;
 
 import javafx.application.Platform;
 
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
 import javafx.fxml.FXML;
 
+import javafx.geometry.Orientation;
+
+import javafx.scene.Node;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ScrollBar;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 
 import javafx.util.Duration;
 
 import duchess.Duchess;
+import duchess.command.Response;
 /**
  * Controller for the main GUI.
  */
 public class MainWindow extends AnchorPane {
+    /** Most messages kept in the conversation view; the oldest are archived beyond this. */
+    private static final int MAX_HISTORY = 1000;
+    /** Archived messages brought back each time the view is scrolled to the top. */
+    private static final int RESTORE_CHUNK = 100;
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<DialogMessage> dialogList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
 
     private Duchess duchess;
+    private CommandRunner commandRunner;
+    private ReminderNotifier reminderNotifier;
+
+    private final ObservableList<DialogMessage> messages = FXCollections.observableArrayList();
+    private final DialogArchive archive = new DialogArchive();
 
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/Peasant.png"));
     private Image duchessImage = new Image(this.getClass().getResourceAsStream("/images/Duchess.png"));
 
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        dialogList.setItems(messages);
+        dialogList.setCellFactory(listView -> new DialogCell(listView, userImage, duchessImage));
+        // The scroll bar belongs to the skin, which only exists once the list view is shown.
+        dialogList.skinProperty().addListener((observable, oldSkin, newSkin) -> watchScrollBar());
     }
 
-    /** Injects the Duchess instance */
+    private void watchScrollBar() {
+        for (Node node : dialogList.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                ScrollBar scrollBar = (ScrollBar) node;
+                scrollBar.valueProperty().addListener((observable, oldValue, newValue) -> {
+                    if (newValue.doubleValue() <= scrollBar.getMin()) {
+                        restoreArchived();
+                    }
+                });
+            }
+        }
+    }
+
+    /** Injects the Duchess instance and starts checking for reminders */
     public void setDuchess(Duchess d) {
         duchess = d;
+        commandRunner = new CommandRunner(d);
+        reminderNotifier = new ReminderNotifier(d);
 
-        dialogContainer.getChildren().add(
-                DialogBox.getDuchessDialog(
-                        duchess.getGreeting(),
-                        duchessImage,
-                        "DEFAULT"
-                )
-        );
+        addMessages(DialogMessage.fromDuchess(duchess.getGreeting(), Response.Type.DEFAULT));
+        reminderNotifier.start(reminder ->
+                addMessages(DialogMessage.fromDuchess(reminder.getText(), reminder.getType())));
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Duchess's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Adds the user input to the conversation and runs it in the background, adding
+     * Duchess's reply once it is ready. Clears the user input after processing.
+     * If too many commands are still waiting, the input is kept so the user can send it again.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = duchess.getResponse(input);
-        String commandType = duchess.getCommandType();
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getDuchessDialog(response, duchessImage, commandType)
-        );
+        boolean isAccepted = commandRunner.submit(input, this::handleReply);
+        if (!isAccepted) {
+            addMessages(DialogMessage.fromDuchess(
+                    "Patience, peasant. I have yet to deal with your previous demands.", Response.Type.DEFAULT));
+            return;
+        }
+
+        addMessages(DialogMessage.fromUser(input));
         userInput.clear();
+    }
+
+    private void handleReply(Response response) {
+        addMessages(DialogMessage.fromDuchess(response.getText(), response.getType()));
 
-        if ("EXIT".equals(commandType)) {
+        if (response.getType() == Response.Type.EXIT) {
             PauseTransition delay = new PauseTransition(Duration.seconds(2));
             delay.setOnFinished(event -> Platform.exit());
             delay.play();
         }
     }
+
+    private void addMessages(DialogMessage... added) {
+        messages.addAll(added);
+        if (messages.size() > MAX_HISTORY) {
+            int evicted = messages.size() - MAX_HISTORY;
+            for (int i = 0; i < evicted; i++) {
+                archive.add(messages.get(i));
+            }
+            messages.remove(0, evicted);
+        }
+        dialogList.scrollTo(messages.size() - 1);
+    }
+
+    /**
+     * Brings the newest archived messages back to the top of the view, keeping the message
+     * that was at the top in view. They go back to the archive when the next message arrives.
+     */
+    private void restoreArchived() {
+        if (archive.size() == 0) {
+            return;
+        }
+        List<DialogMessage> restored = archive.takeNewest(RESTORE_CHUNK);
+        messages.addAll(0, restored);
+        dialogList.scrollTo(restored.size());
+    }
 }
@@ -0,0 +1,62 @@
+package duchess.ui;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+import duchess.Duchess;
+import duchess.command.Response;
+
+/**
+ * Checks for deadlines and events falling due on a background thread, and hands any reminder
+ * to the FX thread.
+ *
+ * Each check only takes the tasks that have fallen due since the last one from the ledger's
+ * reminder queue, so checking often costs next to nothing however large the ledger is.
+ */
+class ReminderNotifier {
+    private static final long CHECK_INTERVAL_SECONDS = 30;
+
+    private final Duchess duchess;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Creates a notifier for the given Duchess. No checks are made until it is started.
+     *
+     * @param duchess the Duchess whose ledger is checked
+     */
+    ReminderNotifier(Duchess duchess) {
+        this.duchess = duchess;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "duchess-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Checks for reminders right away and every {@link #CHECK_INTERVAL_SECONDS} seconds after.
+     *
+     * @param onReminder called on the FX thread with each reminder
+     */
+    void start(Consumer<Response> onReminder) {
+        executor.scheduleWithFixedDelay(() -> check(onReminder), 0, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void check(Consumer<Response> onReminder) {
+        Response reminder;
+        try {
+            reminder = duchess.remind();
+        } catch (RuntimeException e) {
+            // A failed check must not stop later ones, which an escaping exception would.
+            return;
+        }
+
+        if (reminder != null) {
+            Platform.runLater(() -> onReminder.accept(reminder));
+        }
+    }
+}
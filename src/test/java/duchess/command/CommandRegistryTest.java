@@ -0,0 +1,77 @@
+package duchess.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import duchess.exception.DuchessException;
+
+/**
+ * JUnit tests for the CommandRegistry class.
+ */
+public class CommandRegistryTest {
+    private CommandRegistry registry;
+    private CommandHandler deadline;
+    private CommandHandler delete;
+
+    /**
+     * Sets up a fresh CommandRegistry with 2 commands before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        registry = new CommandRegistry();
+        deadline = command -> new Response(Response.Type.ADD, "deadline");
+        delete = command -> new Response(Response.Type.DELETE, "delete");
+        registry.register("deadline", deadline);
+        registry.register("delete", delete, "rm");
+    }
+
+    /**
+     * Tests that a command is found by its name and by its alias.
+     */
+    @Test
+    public void resolveNameAndAlias() throws DuchessException {
+        assertSame(deadline, registry.resolve("deadline"));
+        assertSame(delete, registry.resolve("rm"));
+    }
+
+    /**
+     * Tests that a prefix belonging to only one command resolves to it.
+     */
+    @Test
+    public void resolveUniquePrefix() throws DuchessException {
+        assertSame(deadline, registry.resolve("dea"));
+        assertSame(delete, registry.resolve("dele"));
+    }
+
+    /**
+     * Tests that a prefix shared by several commands is refused, naming the candidates.
+     */
+    @Test
+    public void resolveAmbiguousPrefix() {
+        DuchessException e = assertThrows(DuchessException.class, () -> registry.resolve("de"));
+        assertTrue(e.getMessage().contains("deadline or delete"));
+    }
+
+    /**
+     * Tests that an unknown command is refused, listing the known commands.
+     */
+    @Test
+    public void resolveUnknownCommand() {
+        DuchessException e = assertThrows(DuchessException.class, () -> registry.resolve("fly"));
+        assertTrue(e.getMessage().endsWith("Try: deadline, delete"));
+    }
+
+    /**
+     * Tests that a word cannot be registered twice.
+     */
+    @Test
+    public void registerDuplicateWord() {
+        assertThrows(IllegalArgumentException.class, () -> registry.register("rm", deadline));
+        assertEquals(2, registry.getNames().size());
+    }
+}
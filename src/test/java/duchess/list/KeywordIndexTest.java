@@ -0,0 +1,127 @@
+package duchess.list;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import duchess.task.Task;
+import duchess.task.TodoTask;
+
+/**
+ * JUnit tests for the KeywordIndex class.
+ */
+public class KeywordIndexTest {
+    private ListOrder order;
+    private KeywordIndex index;
+    private Task lunch;
+    private Task launch;
+    private Task homework;
+
+    /**
+     * Sets up a fresh KeywordIndex with 3 tasks before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        order = new ListOrder();
+        index = new KeywordIndex(order);
+        lunch = new TodoTask("eat lunch");
+        launch = new TodoTask("launch rocket");
+        homework = new TodoTask("do homework after lunch");
+        order.relabel(List.of(lunch, launch, homework));
+        index.add(lunch);
+        index.add(launch);
+        index.add(homework);
+    }
+
+    /**
+     * Tests that a keyword matches every task containing it, in the order the tasks were added.
+     */
+    @Test
+    public void findReturnsMatchesInOrder() {
+        assertEquals(List.of(lunch, homework), index.find("lunch"));
+    }
+
+    /**
+     * Tests that a keyword matching in the middle of a word is still found.
+     */
+    @Test
+    public void findMatchesSubstrings() {
+        assertEquals(List.of(launch), index.find("unch r"));
+    }
+
+    /**
+     * Tests that keywords shorter than a trigram still find their tasks.
+     */
+    @Test
+    public void findShortKeyword() {
+        assertEquals(List.of(homework), index.find("do"));
+    }
+
+    /**
+     * Tests that a removed task is no longer returned.
+     */
+    @Test
+    public void findSkipsRemovedTask() {
+        index.remove(lunch);
+        assertEquals(List.of(homework), index.find("lunch"));
+    }
+
+    /**
+     * Tests that matches follow the list order once it changes, without rebuilding the index.
+     */
+    @Test
+    public void findFollowsNewOrder() {
+        order.relabel(List.of(homework, launch, lunch));
+        assertEquals(List.of(homework, lunch), index.find("lunch"));
+        assertEquals(List.of(homework, lunch, launch), index.findRanked("lunch"));
+    }
+
+    /**
+     * Tests that a keyword with no matching trigram returns nothing.
+     */
+    @Test
+    public void findNoMatch() {
+        assertTrue(index.find("xyz").isEmpty());
+    }
+
+    /**
+     * Tests that exact matches come first in list order, followed by misspelt matches.
+     */
+    @Test
+    public void findRankedPutsExactMatchesFirst() {
+        assertEquals(List.of(lunch, homework, launch), index.findRanked("lunch"));
+    }
+
+    /**
+     * Tests that a misspelt keyword in the wrong case still finds its tasks, closest first.
+     */
+    @Test
+    public void findRankedCorrectsTypos() {
+        assertEquals(List.of(lunch, homework), index.findRanked("LUNH"));
+        assertEquals(List.of(homework), index.findRanked("homewrk aftr"));
+        assertTrue(index.findRanked("homewrk rocket").isEmpty());
+    }
+
+    /**
+     * Tests that a todolist ranks matches the same with its index as a columnar one does
+     * by comparing every task.
+     */
+    @Test
+    public void findRankedMatchesScan() {
+        TodoList indexed = new TodoList();
+        TodoList columnar = TodoList.columnar();
+        for (String description : new String[] {"eat lunch", "launch rocket", "do homework after lunch",
+                "Lunch with the Duchess", "lunch2", "buy lunchbox", "rocket launch report 42"}) {
+            indexed.addTask(new TodoTask(description));
+            columnar.addTask(new TodoTask(description));
+        }
+
+        for (String keyword : new String[] {"lunch", "lanch", "Duchess", "rockte", "report 42", "lu"}) {
+            assertEquals(columnar.findTasks(keyword).toString(), indexed.findTasks(keyword).toString(), keyword);
+        }
+    }
+}
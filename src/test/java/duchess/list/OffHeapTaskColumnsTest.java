@@ -0,0 +1,131 @@
+package duchess.list;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import duchess.task.DeadlineTask;
+import duchess.task.EventTask;
+import duchess.task.Task;
+import duchess.task.TodoTask;
+
+/**
+ * JUnit tests for the OffHeapTaskColumns class.
+ */
+public class OffHeapTaskColumnsTest {
+    private static List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 9, 0);
+        for (int i = 0; i < count; i++) {
+            Task task;
+            if (i % 3 == 0) {
+                task = new TodoTask("todo " + i);
+            } else if (i % 3 == 1) {
+                task = new DeadlineTask("deadline " + i, LocalDate.of(2026, 12, 31).minusDays(i % 300));
+            } else {
+                task = new EventTask("event " + i, start.plusHours(i), start.plusHours(i + 2));
+            }
+            if (i % 4 == 0) {
+                task = task.withDone(true);
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static List<String> toFileFormat(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.toFileFormat());
+        }
+        return lines;
+    }
+
+    private static List<String> toFileFormat(TaskSequence tasks) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            lines.add(tasks.get(i).toFileFormat());
+        }
+        return lines;
+    }
+
+    /**
+     * Tests that deleted tasks are skipped when tasks are numbered, across many blocks,
+     * while a view taken before the deletes still sees every task.
+     */
+    @Test
+    public void tombstonesAreSkipped() {
+        List<Task> tasks = createTasks(3000);
+        OffHeapTaskColumns columns = new OffHeapTaskColumns();
+        columns.addAll(tasks);
+        TaskSequence before = columns.freeze();
+
+        BitSet selected = new BitSet();
+        List<Task> expected = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i % 7 == 0) {
+                selected.set(i);
+            } else {
+                expected.add(tasks.get(i));
+            }
+        }
+        columns.removeSelected(selected);
+        columns.remove(1000);
+        expected.remove(1000);
+
+        assertEquals(toFileFormat(expected), toFileFormat(columns));
+        assertEquals(toFileFormat(tasks), toFileFormat(before));
+    }
+
+    /**
+     * Tests that tasks read the same after enough deletes to compact the buffers,
+     * and that tasks added afterwards follow them.
+     */
+    @Test
+    public void compactionKeepsTasks() {
+        List<Task> tasks = createTasks(5000);
+        OffHeapTaskColumns columns = new OffHeapTaskColumns();
+        columns.addAll(tasks);
+        TaskSequence before = columns.freeze();
+
+        columns.subList(0, 2000).clear();
+        columns.add(new TodoTask("added later"));
+        columns.set(0, columns.get(0).withDone(true));
+        List<Task> expected = new ArrayList<>(tasks.subList(2000, 5000));
+        expected.add(new TodoTask("added later"));
+        expected.set(0, expected.get(0).withDone(true));
+
+        assertEquals(toFileFormat(expected), toFileFormat(columns));
+        assertEquals(toFileFormat(tasks), toFileFormat(before));
+    }
+
+    /**
+     * Tests that an off-heap todolist lists and sorts tasks as a todolist of objects does.
+     */
+    @Test
+    public void matchesTodoList() {
+        List<Task> tasks = createTasks(700);
+        TodoList objects = new TodoList();
+        TodoList offHeap = TodoList.offHeap();
+        for (Task task : tasks) {
+            objects.addTask(task);
+            offHeap.addTask(task);
+        }
+
+        objects.deleteTask(600);
+        offHeap.deleteTask(600);
+        objects.markTask(3);
+        offHeap.markTask(3);
+        assertEquals(objects.toString(), offHeap.toString());
+
+        objects.sortByTime();
+        offHeap.sortByTime();
+        assertEquals(objects.toString(), offHeap.toString());
+    }
+}
@@ -0,0 +1,110 @@
+package duchess.list;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import duchess.task.DeadlineTask;
+import duchess.task.EventTask;
+import duchess.task.Task;
+import duchess.task.TodoTask;
+
+/**
+ * JUnit tests for the TaskColumns class.
+ */
+public class TaskColumnsTest {
+    private static List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 9, 0);
+        for (int i = 0; i < count; i++) {
+            Task task;
+            if (i % 3 == 0) {
+                task = new TodoTask("todo " + i);
+            } else if (i % 3 == 1) {
+                task = new DeadlineTask("deadline \u00e9 " + i, LocalDate.of(2026, 12, 31).minusDays(i));
+            } else {
+                task = new EventTask("event " + i, start.plusHours(i), start.plusHours(i + 2));
+            }
+            if (i % 4 == 0) {
+                task = task.withDone(true);
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static List<String> toFileFormat(List<Task> tasks) {
+        List<String> lines = new ArrayList<>();
+        for (Task task : tasks) {
+            lines.add(task.toFileFormat());
+        }
+        return lines;
+    }
+
+    private static List<String> toFileFormat(TaskSequence tasks) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            lines.add(tasks.get(i).toFileFormat());
+        }
+        return lines;
+    }
+
+    /**
+     * Tests that every kind of task reads back from the columns as it was added.
+     */
+    @Test
+    public void tasksReadBackUnchanged() {
+        List<Task> tasks = createTasks(100);
+        TaskColumns columns = new TaskColumns();
+        columns.addAll(tasks);
+
+        assertEquals(toFileFormat(tasks), toFileFormat(columns));
+        assertEquals(tasks.get(2).toString(), columns.get(2).toString());
+    }
+
+    /**
+     * Tests that marking, adding, deleting and sorting leave an earlier view unchanged.
+     */
+    @Test
+    public void changesLeaveViewsUnchanged() {
+        List<Task> tasks = createTasks(70);
+        TaskColumns columns = new TaskColumns();
+        columns.addAll(tasks);
+        TaskSequence view = columns.freeze();
+
+        columns.set(1, columns.get(1).withDone(true));
+        columns.add(new TodoTask("added later"));
+        TaskSequence marked = columns.freeze();
+        columns.remove(0);
+        columns.sortByTime();
+
+        assertEquals(toFileFormat(tasks), toFileFormat(view));
+        assertEquals(71, marked.size());
+        assertEquals("D | 1 | deadline \u00e9 1 | 2026-12-30", marked.get(1).toFileFormat());
+        assertEquals(70, columns.size());
+    }
+
+    /**
+     * Tests that sorting the columns orders tasks as a todolist of objects does.
+     */
+    @Test
+    public void sortMatchesTodoList() {
+        List<Task> tasks = createTasks(50);
+        TodoList objects = new TodoList();
+        TodoList columnar = TodoList.columnar();
+        for (Task task : tasks) {
+            objects.addTask(task);
+            columnar.addTask(task);
+        }
+
+        objects.sortByTime();
+        columnar.sortByTime();
+
+        assertEquals(objects.toString(), columnar.toString());
+    }
+}
@@ -0,0 +1,127 @@
+package duchess.list;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import duchess.task.Task;
+import duchess.task.TodoTask;
+
+/**
+ * JUnit tests for the TaskTree class.
+ */
+public class TaskTreeTest {
+    private static final int[] SIZES = {0, 1, 2, 3, 7, 8, 100, 1023, 1024, 5000};
+
+    private static List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new TodoTask("task " + i));
+        }
+        return tasks;
+    }
+
+    private static void assertSameTasks(List<Task> expected, TaskTree tree) {
+        assertEquals(expected.size(), tree.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), tree.get(i));
+        }
+    }
+
+    /**
+     * Tests that appended tasks can be read back in order.
+     */
+    @Test
+    public void appendKeepsOrder() {
+        List<Task> tasks = createTasks(SIZES[SIZES.length - 1]);
+        TaskTree tree = TaskTree.EMPTY;
+        for (Task task : tasks) {
+            tree = tree.append(task);
+        }
+
+        assertSameTasks(tasks, tree);
+    }
+
+    /**
+     * Tests that a tree built in one go holds the same tasks as one built by appending,
+     * and can still be appended to.
+     */
+    @Test
+    public void ofMatchesAppend() {
+        for (int size : SIZES) {
+            List<Task> tasks = createTasks(size + 1);
+            TaskTree tree = TaskTree.of(tasks.subList(0, size)).append(tasks.get(size));
+
+            assertSameTasks(tasks, tree);
+        }
+    }
+
+    /**
+     * Tests that replacing a task leaves the earlier version unchanged.
+     */
+    @Test
+    public void setKeepsEarlierVersion() {
+        List<Task> tasks = createTasks(1057);
+        TaskTree before = TaskTree.of(tasks);
+        Task replacement = new TodoTask("replacement");
+
+        TaskTree after = before.set(40, replacement).set(1056, replacement);
+
+        assertSame(replacement, after.get(40));
+        assertSame(replacement, after.get(1056));
+        assertSame(tasks.get(40), before.get(40));
+        assertSame(tasks.get(1056), before.get(1056));
+        assertSame(tasks.get(41), after.get(41));
+    }
+
+    /**
+     * Tests that inserting and removing tasks at the front, middle and end keeps the
+     * others in order, and leaves the earlier version unchanged.
+     */
+    @Test
+    public void insertAndRemoveKeepOrder() {
+        List<Task> tasks = createTasks(2000);
+        TaskTree before = TaskTree.of(tasks);
+        List<Task> expected = new ArrayList<>(tasks);
+        TaskTree tree = before;
+
+        for (int i = 0; i < 1500; i++) {
+            int index = (i * 7919) % expected.size();
+            expected.remove(index);
+            tree = tree.remove(index);
+        }
+        for (int i = 0; i < 500; i++) {
+            Task task = new TodoTask("inserted " + i);
+            int index = (i * 104729) % (expected.size() + 1);
+            expected.add(index, task);
+            tree = tree.insert(index, task);
+        }
+        expected.remove(0);
+        tree = tree.remove(0);
+        expected.remove(expected.size() - 1);
+        tree = tree.remove(tree.size() - 1);
+
+        assertSameTasks(expected, tree);
+        assertEquals(expected, tree.toList());
+        assertSameTasks(tasks, before);
+    }
+
+    /**
+     * Tests that a task inserted into an indexed todolist is numbered and found in list order.
+     */
+    @Test
+    public void insertedTaskIsFoundInOrder() {
+        TodoList todoList = new TodoList();
+        todoList.addTask(new TodoTask("read book"));
+        todoList.addTask(new TodoTask("return book"));
+        todoList.insertTask(1, new TodoTask("write book report"));
+
+        assertEquals("1. [T][ ] read book\n2. [T][ ] write book report\n3. [T][ ] return book\n",
+                todoList.findTasks("book").toString());
+        assertEquals("write book report", todoList.deleteTask(1).getDescription());
+    }
+}
@@ -0,0 +1,126 @@
+package duchess.list;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import duchess.task.DeadlineTask;
+import duchess.task.EventTask;
+import duchess.task.Task;
+import duchess.task.TodoTask;
+
+/**
+ * JUnit tests for the TimeIndex class.
+ */
+public class TimeIndexTest {
+    private ListOrder order;
+    private TimeIndex index;
+    private List<Task> tasks;
+    private Task todo;
+    private Task lateDeadline;
+    private Task event;
+    private Task earlyDeadline;
+
+    /**
+     * Sets up a fresh TimeIndex with one todo, two deadlines and one event before each test.
+     */
+    @BeforeEach
+    public void setUp() {
+        todo = new TodoTask("Eat lunch");
+        lateDeadline = new DeadlineTask("Submit essay", "2026-03-01");
+        event = new EventTask("Group meeting", "2026-02-01 0000", "2026-02-01 0100");
+        earlyDeadline = new DeadlineTask("Return book", "2026-02-01");
+        tasks = List.of(todo, lateDeadline, event, earlyDeadline);
+
+        order = new ListOrder();
+        order.relabel(tasks);
+        index = new TimeIndex(order);
+        tasks.forEach(index::add);
+    }
+
+    /**
+     * Tests that sorting orders timed tasks by time and keeps ties in list order.
+     */
+    @Test
+    public void sortKeepsTiesInListOrder() {
+        assertEquals(List.of(event, earlyDeadline, lateDeadline, todo), index.sort(tasks));
+    }
+
+    /**
+     * Tests that a task inserted before others with the same time comes before them too,
+     * without the index being rebuilt.
+     */
+    @Test
+    public void insertedTaskKeepsTiesInListOrder() {
+        Task sameDay = new DeadlineTask("Pay rent", "2026-02-01");
+        List<Task> inserted = new ArrayList<>(tasks);
+        inserted.add(0, sameDay);
+        order.add(inserted, 0);
+        index.add(sameDay);
+
+        assertEquals(List.of(sameDay, earlyDeadline), index.deadlinesDueBy(LocalDate.of(2026, 2, 1)));
+        assertEquals(List.of(sameDay, event, earlyDeadline, lateDeadline, todo), index.sort(inserted));
+    }
+
+    /**
+     * Tests that only deadlines due on or before the date are returned.
+     */
+    @Test
+    public void deadlinesDueByIncludesDate() {
+        assertEquals(List.of(earlyDeadline), index.deadlinesDueBy(LocalDate.of(2026, 2, 1)));
+    }
+
+    /**
+     * Tests that events are found by their start time.
+     */
+    @Test
+    public void eventsStartingBetween() {
+        assertEquals(List.of(event), index.eventsStartingBetween(
+                LocalDateTime.of(2026, 1, 31, 0, 0), LocalDateTime.of(2026, 2, 1, 0, 0)));
+    }
+
+    /**
+     * Tests that a removed deadline is no longer returned.
+     */
+    @Test
+    public void removeDeadline() {
+        index.remove(earlyDeadline);
+        assertEquals(List.of(lateDeadline), index.deadlinesDueBy(LocalDate.of(2026, 3, 1)));
+    }
+
+    /**
+     * Tests that done tasks are left out of the tasks falling due, and overdue ones kept in.
+     */
+    @Test
+    public void unfinishedDueByLeavesOutDone() {
+        Task doneDeadline = earlyDeadline.withDone(true);
+        index.replace(earlyDeadline, doneDeadline);
+
+        assertEquals(List.of(event), index.unfinishedDueBy(LocalDateTime.of(2026, 2, 28, 0, 0)));
+        assertEquals(List.of(event, lateDeadline), index.unfinishedDueBy(LocalDateTime.of(2026, 3, 1, 0, 0)));
+    }
+
+    /**
+     * Tests that each task falling due is handed out as a reminder once, and again only
+     * after it is unmarked.
+     */
+    @Test
+    public void pollRemindersHandsOutOnce() {
+        LocalDateTime time = LocalDateTime.of(2026, 2, 1, 12, 0);
+        assertEquals(List.of(event, earlyDeadline), index.pollReminders(time));
+        assertEquals(List.of(), index.pollReminders(time));
+
+        Task doneEvent = event.withDone(true);
+        index.replace(event, doneEvent);
+        index.remove(lateDeadline);
+        Task undoneEvent = doneEvent.withDone(false);
+        index.replace(doneEvent, undoneEvent);
+        assertEquals(List.of(undoneEvent), index.pollReminders(LocalDateTime.of(2026, 3, 1, 0, 0)));
+    }
+}
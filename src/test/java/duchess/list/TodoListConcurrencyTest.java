@@ -0,0 +1,175 @@
+package duchess.list;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import duchess.task.TodoTask;
+
+/**
+ * Stress tests for reading and changing a TodoList from several threads at once.
+ */
+public class TodoListConcurrencyTest {
+    private static final int READERS = 4;
+    private static final int WRITERS = 8;
+    private static final int OPERATIONS = 5000;
+
+    /**
+     * Tests that readers running alongside a writer always see a whole version of the list:
+     * a listing whose lines are numbered in order and match the snapshot size, with versions
+     * that only move forward.
+     */
+    @Test
+    public void readersSeeConsistentSnapshots() throws InterruptedException {
+        TodoList todoList = new TodoList();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(start(failures, () -> {
+                long lastVersion = -1;
+                while (isWriting.get()) {
+                    TodoList.Snapshot snapshot = todoList.snapshot();
+                    assertTrue(snapshot.getVersion() >= lastVersion, "Version went backwards");
+                    lastVersion = snapshot.getVersion();
+
+                    String listing = snapshot.toString();
+                    String[] lines = snapshot.size() == 0 ? new String[0] : listing.split("\n");
+                    assertEquals(snapshot.size(), lines.length, "Listing out of step with size");
+                    for (int i = 0; i < lines.length; i++) {
+                        assertTrue(lines[i].startsWith((i + 1) + ". "), "Line misnumbered: " + lines[i]);
+                    }
+
+                    snapshot.renderPage(snapshot.getPageCount(50), 50);
+                    todoList.findTasks("chore 1");
+                }
+            }));
+        }
+
+        int expectedSize = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            todoList.addTask(new TodoTask("chore " + i));
+            expectedSize++;
+            if (i % 3 == 0) {
+                todoList.markTask(todoList.size() - 1);
+            }
+            if (i % 10 == 0) {
+                todoList.deleteTask(0);
+                expectedSize--;
+            }
+        }
+        isWriting.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(failures.isEmpty(), "Reader failed: " + failures.peek());
+        assertEquals(expectedSize, todoList.size());
+    }
+
+    /**
+     * Tests that marking a task does not change a snapshot taken before it.
+     */
+    @Test
+    public void snapshotUnchangedByMark() {
+        TodoList todoList = new TodoList();
+        todoList.addTask(new TodoTask("Eat lunch"));
+        TodoList.Snapshot before = todoList.snapshot();
+
+        todoList.markTask(0);
+
+        assertFalse(before.getTask(0).isDone());
+        assertEquals("1. [T][ ] Eat lunch\n", before.toString());
+        assertTrue(todoList.getTask(0).isDone());
+        assertEquals(1, todoList.findDoneTasks().cardinality());
+        assertTrue(todoList.findTasks("lunch").getTask(0).isDone());
+    }
+
+    /**
+     * Tests that tasks added by several writers at once are all kept and indexed.
+     */
+    @Test
+    public void concurrentWritersAllApplied() throws InterruptedException {
+        TodoList todoList = new TodoList();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            String name = "writer" + w;
+            writers.add(start(failures, () -> {
+                for (int i = 0; i < OPERATIONS / WRITERS; i++) {
+                    todoList.addTask(new TodoTask(name + " chore"));
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertTrue(failures.isEmpty(), "Writer failed: " + failures.peek());
+        assertEquals(OPERATIONS, todoList.size());
+        assertEquals(OPERATIONS / WRITERS, todoList.findTasks("writer3 chore").size());
+        assertEquals(OPERATIONS, todoList.snapshot().getVersion());
+    }
+
+    /**
+     * Tests that reads complete while a writer is in the middle of a change.
+     */
+    @Test
+    public void readersDoNotWaitForWriter() throws InterruptedException {
+        TodoList todoList = new TodoList();
+        todoList.addTask(new TodoTask("Eat lunch"));
+        CountDownLatch isHolding = new CountDownLatch(1);
+        CountDownLatch isRead = new CountDownLatch(1);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+        Thread writer = start(failures, () -> todoList.atomically(() -> {
+            todoList.addTask(new TodoTask("Go for class"));
+            isHolding.countDown();
+            return isRead.await(10, TimeUnit.SECONDS);
+        }));
+        assertTrue(isHolding.await(10, TimeUnit.SECONDS));
+
+        Thread reader = start(failures, () -> {
+            assertEquals(2, todoList.size());
+            assertEquals(1, todoList.findTasks("lunch").size());
+            assertEquals("1. [T][ ] Eat lunch\n2. [T][ ] Go for class\n", todoList.toString());
+            assertEquals("2. [T][ ] Go for class\n", todoList.renderPage(2, 1));
+            isRead.countDown();
+        });
+        reader.join(TimeUnit.SECONDS.toMillis(5));
+        boolean isReadWhileWriting = isRead.getCount() == 0;
+        isRead.countDown();
+        writer.join();
+
+        assertTrue(failures.isEmpty(), "Thread failed: " + failures.peek());
+        assertTrue(isReadWhileWriting, "Reader waited for the writer");
+    }
+
+    private static Thread start(Queue<Throwable> failures, ThrowingRunnable body) {
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
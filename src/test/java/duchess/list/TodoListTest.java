@@ -3,6 +3,9 @@ package duchess.list;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.BitSet;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -62,4 +65,31 @@ public class TodoListTest {
         this.todoList.deleteTask(0);
         assertEquals("Go for class", this.todoList.getTask(0).getDescription());
     }
+
+    /**
+     * Tests that deleting several tasks at once removes exactly the selected tasks, keeping the rest in order.
+     */
+    @Test
+    public void deleteSelectedTasks() {
+        BitSet selected = new BitSet();
+        selected.set(0);
+        selected.set(2);
+        List<Task> deleted = this.todoList.deleteTasks(selected);
+
+        assertEquals(2, deleted.size());
+        assertEquals("Do your assignments", deleted.get(1).getDescription());
+        assertEquals(1, this.todoList.size());
+        assertEquals("Go for class", this.todoList.getTask(0).getDescription());
+    }
+
+    /**
+     * Tests that the done tasks can be found and deleted together.
+     */
+    @Test
+    public void deleteDoneTasks() {
+        this.todoList.markTask(1);
+        this.todoList.deleteTasks(this.todoList.findDoneTasks());
+        assertEquals("Do your assignments", this.todoList.getTask(1).getDescription());
+        assertEquals(2, this.todoList.size());
+    }
 }
@@ -0,0 +1,80 @@
+package duchess.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests for the Parser class.
+ */
+public class ParserTest {
+    private final ParsedCommand command = new ParsedCommand();
+
+    /**
+     * Tests that the command word and rest are split, with whitespace collapsed.
+     */
+    @Test
+    public void parseCollapsesWhitespace() {
+        Parser.parse("  todo \t read   book ", command);
+        assertEquals("todo", command.getCommand());
+        assertTrue(command.isCommand("todo"));
+        assertEquals("read book", command.getRest());
+    }
+
+    /**
+     * Tests that the description and flag values are found, whatever order the flags are in.
+     */
+    @Test
+    public void parseFlags() {
+        Parser.parse("event project meeting /to 2026-02-16 1500 /from 2026-02-16 1400", command);
+        assertEquals("project meeting", command.getDescription(Parser.FLAG_FROM, Parser.FLAG_TO));
+        assertEquals("2026-02-16 1400", command.getFlag(Parser.FLAG_FROM, Parser.FLAG_TO));
+        assertEquals("2026-02-16 1500", command.getFlag(Parser.FLAG_TO, Parser.FLAG_FROM));
+        assertFalse(command.hasFlag(Parser.FLAG_BY));
+    }
+
+    /**
+     * Tests that a flag inside a word is left as part of the description.
+     */
+    @Test
+    public void parseIgnoresFlagInsideWord() {
+        Parser.parse("deadline read a/by b /by 2026-02-20", command);
+        assertEquals("read a/by b", command.getDescription(Parser.FLAG_BY));
+        assertEquals("2026-02-20", command.getFlag(Parser.FLAG_BY));
+    }
+
+    /**
+     * Tests that a deadline keeps a flag it does not take as part of its description.
+     */
+    @Test
+    public void parseDeadlineKeepsOtherFlags() {
+        Parser.parse("deadline walk /to school /by 2026-03-01", command);
+        assertEquals("walk /to school", command.getDescription(Parser.FLAG_BY));
+        assertEquals("2026-03-01", command.getFlag(Parser.FLAG_BY));
+    }
+
+    /**
+     * Tests that an event keeps a flag it does not take as part of its description.
+     */
+    @Test
+    public void parseEventKeepsOtherFlags() {
+        Parser.parse("event meet /by the lake /from 2026-02-16 1400 /to 2026-02-16 1500", command);
+        assertEquals("meet /by the lake", command.getDescription(Parser.FLAG_FROM, Parser.FLAG_TO));
+        assertEquals("2026-02-16 1400", command.getFlag(Parser.FLAG_FROM, Parser.FLAG_TO));
+        assertEquals("2026-02-16 1500", command.getFlag(Parser.FLAG_TO, Parser.FLAG_FROM));
+    }
+
+    /**
+     * Tests that reusing a parsed command forgets the previous input.
+     */
+    @Test
+    public void parseReplacesPreviousCommand() {
+        Parser.parse("deadline submit report /by 2026-02-20", command);
+        Parser.parse("list", command);
+        assertEquals("list", command.getCommand());
+        assertEquals("", command.getRest());
+        assertFalse(command.hasFlag(Parser.FLAG_BY));
+    }
+}
@@ -0,0 +1,126 @@
+package duchess.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import duchess.Duchess;
+import duchess.storage.FileStorage;
+
+/**
+ * JUnit tests for the LedgerCache class.
+ */
+public class LedgerCacheTest {
+    private Path directory;
+    private Map<String, Integer> loads;
+
+    /**
+     * Sets up an empty directory for the ledgers of each test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("duchess-ledgers");
+        loads = new HashMap<>();
+    }
+
+    private LedgerCache createCache(int capacity) {
+        return new LedgerCache(capacity, user -> {
+            loads.merge(user, 1, Integer::sum);
+            return new Duchess(new FileStorage(directory.resolve(user)));
+        });
+    }
+
+    private String respond(LedgerCache cache, String user, String input) {
+        LedgerCache.Ledger ledger = cache.acquire(user);
+        try {
+            return ledger.getDuchess().getResponse(input);
+        } finally {
+            cache.release(ledger);
+        }
+    }
+
+    /**
+     * Tests that the least recently used ledger is saved and closed once the cache is full,
+     * and is loaded again with its tasks when its user returns.
+     */
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        LedgerCache cache = createCache(2);
+        respond(cache, "alice", "todo Eat lunch");
+        respond(cache, "bob", "todo Go for class");
+        respond(cache, "carol", "todo Do your assignments");
+
+        assertEquals(2, cache.size());
+        String listing = respond(cache, "alice", "list");
+
+        assertEquals(2, (int) loads.get("alice"));
+        assertEquals("Very well. Behold your royal obligations, peasant:\n1. [T][ ] Eat lunch\n", listing);
+        cache.closeAll(0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Tests that a ledger serving a request is not evicted, even when the cache is full.
+     */
+    @Test
+    public void keepsLedgersInUse() {
+        LedgerCache cache = createCache(1);
+        LedgerCache.Ledger alice = cache.acquire("alice");
+        Duchess duchess = alice.getDuchess();
+
+        respond(cache, "bob", "list");
+
+        assertEquals(1, cache.size());
+        assertSame(duchess, alice.getDuchess());
+        cache.release(alice);
+        cache.closeAll(0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Tests that ledgers left idle are closed by a sweep.
+     */
+    @Test
+    public void evictsIdleLedgers() {
+        LedgerCache cache = createCache(4);
+        respond(cache, "alice", "list");
+        LedgerCache.Ledger bob = cache.acquire("bob");
+
+        cache.evictIdle(0);
+
+        assertEquals(1, cache.size());
+        cache.release(bob);
+        cache.closeAll(0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Tests that closing the cache leaves a ledger in use open until its request hands it
+     * back, and that the change made meanwhile is saved.
+     */
+    @Test
+    public void closesLedgersInUseOnRelease() {
+        LedgerCache cache = createCache(4);
+        LedgerCache.Ledger alice = cache.acquire("alice");
+        Duchess duchess = alice.getDuchess();
+
+        cache.closeAll(0, TimeUnit.SECONDS);
+        assertThrows(IllegalStateException.class, () -> cache.acquire("bob"));
+        assertEquals(1, cache.size());
+
+        duchess.getResponse("todo Eat lunch");
+        cache.release(alice);
+        assertEquals(0, cache.size());
+
+        FileStorage storage = new FileStorage(directory.resolve("alice"));
+        assertEquals(1, storage.fetchTasks().size());
+        storage.close();
+    }
+}
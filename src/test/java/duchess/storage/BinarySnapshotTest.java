@@ -0,0 +1,150 @@
+package duchess.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import duchess.list.TodoList;
+import duchess.task.DeadlineTask;
+import duchess.task.Task;
+import duchess.task.TodoTask;
+
+/**
+ * JUnit tests for the BinarySnapshot class, and for how FileStorage loads a damaged one.
+ */
+public class BinarySnapshotTest {
+    /** Where the first task's description length sits: after the magic, version, count, tag and flag. */
+    private static final int FIRST_LENGTH_OFFSET = 4 + 1 + 4 + 1 + 1;
+
+    private Path directory;
+    private Path snapshot;
+    private byte[] bytes;
+
+    /**
+     * Writes a snapshot of two tasks into an empty directory before each test.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("duchess-snapshot");
+        snapshot = directory.resolve("duchess.bin");
+        List<Task> tasks = List.of(new TodoTask("Eat lunch"),
+                new DeadlineTask("Submit essay", LocalDate.of(2026, 3, 1)));
+        BinarySnapshot.write(snapshot, tasks, new BitSet());
+        bytes = Files.readAllBytes(snapshot);
+    }
+
+    private void writeFirstLength(int length) throws IOException {
+        ByteBuffer.wrap(bytes).putInt(FIRST_LENGTH_OFFSET, length);
+        Files.write(snapshot, bytes);
+    }
+
+    /**
+     * Tests that a whole snapshot reads back every task.
+     */
+    @Test
+    public void readsWholeSnapshot() throws IOException {
+        List<Task> tasks = BinarySnapshot.read(snapshot);
+        assertEquals(2, tasks.size());
+        assertEquals("D | 0 | Submit essay | 2026-03-01", tasks.get(1).toFileFormat());
+    }
+
+    /**
+     * Tests that a snapshot cut short fails as a whole rather than yielding the tasks before the cut.
+     */
+    @Test
+    public void truncatedSnapshotFails() throws IOException {
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> BinarySnapshot.read(snapshot));
+    }
+
+    /**
+     * Tests that negative and oversized description lengths fail with an IOException.
+     */
+    @Test
+    public void badLengthFails() throws IOException {
+        writeFirstLength(-1);
+        assertThrows(IOException.class, () -> BinarySnapshot.read(snapshot));
+        writeFirstLength(Integer.MAX_VALUE);
+        assertThrows(IOException.class, () -> BinarySnapshot.read(snapshot));
+    }
+
+    /**
+     * Tests that a damaged snapshot is set aside along with its journal, which is not
+     * replayed, and that the fresh ledger is saved without touching them.
+     */
+    @Test
+    public void damagedSnapshotIsSetAside() throws IOException {
+        bytes[0] = 'X';
+        Files.write(snapshot, bytes);
+        Path journal = directory.resolve("duchess.journal");
+        Files.write(journal, List.of("- | 0"), StandardCharsets.UTF_8);
+
+        FileStorage storage = new FileStorage(directory);
+        TodoList todoList = storage.fetchTasks();
+        storage.writeTasks(todoList);
+        storage.close();
+
+        assertEquals(0, todoList.size());
+        assertTrue(Arrays.equals(bytes, Files.readAllBytes(directory.resolve("duchess.bin.corrupt"))));
+        assertEquals(List.of("- | 0"), Files.readAllLines(directory.resolve("duchess.journal.corrupt")));
+        FileStorage reopened = new FileStorage(directory);
+        assertEquals(0, reopened.fetchTasks().size());
+        reopened.close();
+        assertFalse(Files.exists(directory.resolve("duchess.bin.corrupt.1")));
+    }
+
+    /**
+     * Tests that a snapshot torn mid-record is rebuilt from the copy kept at the last save,
+     * with the journaled records since replayed on top.
+     */
+    @Test
+    public void tornSnapshotKeepsJournaledRecords() throws IOException {
+        Files.delete(snapshot);
+        FileStorage storage = new FileStorage(directory);
+        TodoList todoList = storage.fetchTasks();
+        todoList.addTask(new TodoTask("Eat lunch"));
+        todoList.addTask(new TodoTask("Write essay"));
+        storage.writeTasks(todoList);
+
+        Task added = new DeadlineTask("Submit essay", LocalDate.of(2026, 3, 1));
+        todoList.addTask(added);
+        storage.appendAdd(todoList, added);
+        todoList.markTask(0);
+        storage.appendMark(todoList, 0, true);
+        storage.close();
+
+        byte[] saved = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(saved, saved.length - 4));
+
+        FileStorage reopened = new FileStorage(directory);
+        TodoList restored = reopened.fetchTasks();
+        reopened.close();
+
+        assertEquals(3, restored.size());
+        assertTrue(restored.snapshot().getTask(0).isDone());
+        assertEquals("D | 0 | Submit essay | 2026-03-01", restored.snapshot().getTask(2).toFileFormat());
+        assertNotNull(reopened.getLoadNotice());
+        assertTrue(Files.exists(directory.resolve("duchess.bin.corrupt")));
+
+        FileStorage again = new FileStorage(directory);
+        assertEquals(3, again.fetchTasks().size());
+        assertNull(again.getLoadNotice());
+        again.close();
+    }
+}
@@ -0,0 +1,59 @@
+package duchess.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests for the WriteBehindPersister class.
+ */
+public class WriteBehindPersisterTest {
+    private Path journal;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        journal = Files.createTempDirectory("duchess-persister").resolve("duchess.journal");
+    }
+
+    /**
+     * Tests that a record that cannot be written fails the flush, and is written once
+     * by a later flush when the journal can be written again.
+     */
+    @Test
+    public void failedWriteIsReportedAndRetried() throws IOException {
+        // A directory in the journal's place makes every write fail.
+        Files.createDirectory(journal);
+        WriteBehindPersister persister = new WriteBehindPersister(journal);
+        persister.append("+ | T | 0 | Eat lunch");
+        assertThrows(IOException.class, persister::flush);
+
+        Files.delete(journal);
+        persister.append("M | 0 | 1");
+        persister.flush();
+        persister.close();
+        assertEquals(List.of("+ | T | 0 | Eat lunch", "M | 0 | 1"), Files.readAllLines(journal));
+    }
+
+    /**
+     * Tests that nothing can be queued once the persister is closed, and that flushing
+     * returns at once instead of waiting on the stopped writer thread.
+     */
+    @Test
+    public void closedPersisterRefusesWork() throws IOException {
+        WriteBehindPersister persister = new WriteBehindPersister(journal);
+        persister.append("+ | T | 0 | Eat lunch");
+        persister.close();
+
+        persister.flush();
+        persister.close();
+        assertThrows(IllegalStateException.class, () -> persister.append("M | 0 | 1"));
+        assertEquals(List.of("+ | T | 0 | Eat lunch"), Files.readAllLines(journal));
+    }
+}
@@ -34,9 +34,8 @@ public class EventTaskTest {
      */
     @Test
     public void toFileFormatDone() {
-        event.mark();
         String expected = "E | 1 | Group meeting | 2026-02-01 1600 | 2026-02-01 1700";
-        assertEquals(expected, event.toFileFormat());
+        assertEquals(expected, event.withDone(true).toFileFormat());
     }
 
     /**